@@ -5,6 +5,9 @@ CONFIG_SERVER_USERNAME="my-username"
 AUTH_REST_SERVER_PORT=8004
 EUREKA_URL="my-eureka-url"
 ACTIVE_PROFILE="prod"
+VIRTUAL_THREADS_ENABLED=false
+AUTH_METRICS_ENABLED=true
+HIBERNATE_STATISTICS_ENABLED=false
 
 IMAGE_NAME="auth_serv"
 
@@ -18,4 +21,7 @@ docker run -d -p ${AUTH_REST_SERVER_PORT}:${AUTH_REST_SERVER_PORT} \
   -e EUREKA_URL=${EUREKA_URL} \
   -e ACTIVE_PROFILE=${ACTIVE_PROFILE} \
   -e EXTERNAL_IP=${EXTERNAL_IP} \
+  -e VIRTUAL_THREADS_ENABLED=${VIRTUAL_THREADS_ENABLED} \
+  -e AUTH_METRICS_ENABLED=${AUTH_METRICS_ENABLED} \
+  -e HIBERNATE_STATISTICS_ENABLED=${HIBERNATE_STATISTICS_ENABLED} \
   ${IMAGE_NAME}
\ No newline at end of file
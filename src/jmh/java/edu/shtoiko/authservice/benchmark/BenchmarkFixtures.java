@@ -0,0 +1,67 @@
+package edu.shtoiko.authservice.benchmark;
+
+import edu.shtoiko.authservice.metrics.AuthMetrics;
+import edu.shtoiko.authservice.model.Role;
+import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.repository.RoleRepository;
+import edu.shtoiko.authservice.service.implementation.RoleRegistry;
+import edu.shtoiko.authservice.service.implementation.SecurityVersionRegistry;
+import edu.shtoiko.authservice.utils.JwtTokenEngine;
+import edu.shtoiko.authservice.utils.JwtTokenUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+final class BenchmarkFixtures {
+
+    static final String SECRET = Base64.getEncoder()
+        .encodeToString("benchmark-secret-key-0123456789-abcdef".getBytes());
+
+    static final long ACCESS_TOKEN_TTL_MS = 15 * 60 * 1000L;
+
+    static final long REFRESH_TOKEN_TTL_MS = 24 * 60 * 60 * 1000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<Role> roles() {
+        return List.of(new Role(1L, "ROLE_USER"), new Role(2L, "ADMIN"), new Role(3L, "USERMANAGER_WRITE"),
+            new Role(4L, "USERMANAGER_READ"));
+    }
+
+    static RoleRegistry roleRegistry() {
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        Mockito.when(roleRepository.findAll()).thenReturn(new ArrayList<>(roles()));
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.load();
+        return roleRegistry;
+    }
+
+    static SecurityVersionRegistry securityVersions() {
+        return new SecurityVersionRegistry(null, 1024, 5000);
+    }
+
+    static JwtTokenUtils tokenUtils(RoleRegistry roleRegistry, SecurityVersionRegistry securityVersions,
+        boolean compactRoles) {
+        JwtTokenUtils tokenUtils = new JwtTokenUtils(new JwtTokenEngine(SECRET), roleRegistry, securityVersions,
+            new AuthMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(tokenUtils, "accessTokenExpirationTime", ACCESS_TOKEN_TTL_MS);
+        ReflectionTestUtils.setField(tokenUtils, "refreshTokenExpirationTime", REFRESH_TOKEN_TTL_MS);
+        ReflectionTestUtils.setField(tokenUtils, "compactRoles", compactRoles);
+        return tokenUtils;
+    }
+
+    static SecuredUser user() {
+        SecuredUser user = new SecuredUser();
+        user.setId(42L);
+        user.setEmail("john.doe@example.com");
+        user.setPassword("$2a$10$wceGJELIiL0BBUWrj.C7p.zxXJhYXLDYt5n7xDSddj.4C5HE07TH.");
+        user.setRoles(roles().subList(0, 3));
+        user.setSessions(List.of());
+        return user;
+    }
+}
@@ -0,0 +1,110 @@
+package edu.shtoiko.authservice.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.shtoiko.authservice.model.dto.BulkRowResult;
+import edu.shtoiko.authservice.model.dto.UserDto;
+import edu.shtoiko.authservice.service.RoleService;
+import edu.shtoiko.authservice.service.implementation.PasswordHashingServiceImpl;
+import edu.shtoiko.authservice.service.implementation.UserBulkServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BulkRegistrationBenchmark {
+
+    private static final int USERS = 100_000;
+
+    @Param({"500", "1000", "5000"})
+    private int batchSize;
+
+    @Param({"4"})
+    private int bcryptStrength;
+
+    private PostgreSQLContainer<?> postgres;
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PasswordHashingServiceImpl passwordHashingService;
+
+    private UserBulkServiceImpl bulkService;
+
+    private List<UserDto> users;
+
+    private int round;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        passwordHashingService = new PasswordHashingServiceImpl(new BCryptPasswordEncoder(bcryptStrength),
+            new SimpleMeterRegistry(), 0, 64, 1, 0);
+        bulkService = new UserBulkServiceImpl(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+            passwordHashingService, Mockito.mock(RoleService.class),
+            BenchmarkFixtures.securityVersions(), USERS, batchSize);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareUsers() {
+        round++;
+        users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            UserDto user = new UserDto();
+            user.setEmail("bulk-" + round + "-" + i + "@example.com");
+            user.setPassword("password-" + i);
+            users.add(user);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'bulk-%'");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        passwordHashingService.shutdown();
+        dataSource.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<BulkRowResult> registerUsers() {
+        return bulkService.registerUsers(users);
+    }
+}
@@ -0,0 +1,95 @@
+package edu.shtoiko.authservice.benchmark;
+
+import edu.shtoiko.authservice.metrics.AuthMetrics;
+import edu.shtoiko.authservice.service.implementation.RevocationList;
+import edu.shtoiko.authservice.service.implementation.RoleRegistry;
+import edu.shtoiko.authservice.service.implementation.SecurityVersionRegistry;
+import edu.shtoiko.authservice.utils.CustomJwtAuthenticationConverter;
+import edu.shtoiko.authservice.utils.CustomJwtDecoder;
+import edu.shtoiko.authservice.utils.CustomJwtGrantedAuthoritiesConverter;
+import edu.shtoiko.authservice.utils.JwtDecoderCache;
+import edu.shtoiko.authservice.utils.JwtTokenUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecoderBenchmark {
+
+    @Param({"false", "true"})
+    private boolean decoderCache;
+
+    @Param({"false", "true"})
+    private boolean compactRoles;
+
+    private CustomJwtDecoder decoder;
+
+    private CustomJwtAuthenticationConverter authenticationConverter;
+
+    private CustomJwtGrantedAuthoritiesConverter authoritiesConverter;
+
+    private String accessToken;
+
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+        RoleRegistry roleRegistry = BenchmarkFixtures.roleRegistry();
+        SecurityVersionRegistry securityVersions = BenchmarkFixtures.securityVersions();
+        JwtTokenUtils tokenUtils = BenchmarkFixtures.tokenUtils(roleRegistry, securityVersions, compactRoles);
+        decoder = new CustomJwtDecoder(tokenUtils,
+            new JwtDecoderCache(decoderCache, 100_000, Duration.ofMinutes(5), Clock.systemUTC(),
+                meterRegistry),
+            new RevocationList(null, BenchmarkFixtures.ACCESS_TOKEN_TTL_MS, 100_000, 0.01, 5000),
+            securityVersions, authMetrics);
+        authoritiesConverter = new CustomJwtGrantedAuthoritiesConverter(roleRegistry);
+        authenticationConverter = new CustomJwtAuthenticationConverter(authMetrics);
+        authenticationConverter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        accessToken = tokenUtils.generateAccessToken(BenchmarkFixtures.user());
+        jwt = decoder.decode(accessToken);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return decoder.decode(accessToken);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken decodeAndConvert() {
+        return authenticationConverter.convert(decoder.decode(accessToken));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertAuthentication() {
+        return authenticationConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convertAuthorities() {
+        return authoritiesConverter.convert(jwt);
+    }
+}
@@ -0,0 +1,58 @@
+package edu.shtoiko.authservice.benchmark;
+
+import edu.shtoiko.authservice.mapper.UserMapper;
+import edu.shtoiko.authservice.mapper.UserMapperImpl;
+import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.model.dto.SecuredUserDto;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private UserMapper userMapper;
+
+    private SecuredUser user;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper
+            .getConfiguration()
+            .setMatchingStrategy(MatchingStrategies.STRICT)
+            .setFieldMatchingEnabled(true)
+            .setSkipNullEnabled(true)
+            .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
+        userMapper = new UserMapperImpl();
+        user = BenchmarkFixtures.user();
+    }
+
+    @Benchmark
+    public SecuredUserDto modelMapper() {
+        return modelMapper.map(user, SecuredUserDto.class);
+    }
+
+    @Benchmark
+    public SecuredUserDto mapStruct() {
+        return userMapper.toSecuredUserDto(user);
+    }
+}
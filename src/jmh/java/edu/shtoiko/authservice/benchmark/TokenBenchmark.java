@@ -0,0 +1,90 @@
+package edu.shtoiko.authservice.benchmark;
+
+import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.utils.JwtTokenUtils;
+import edu.shtoiko.authservice.utils.TokenPair;
+import edu.shtoiko.authservice.utils.VerifiedToken;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    @Param({"false", "true"})
+    private boolean compactRoles;
+
+    private JwtTokenUtils tokenUtils;
+
+    private SecuredUser user;
+
+    private String accessToken;
+
+    private VerifiedToken refreshToken;
+
+    @Setup
+    public void setUp() {
+        tokenUtils = BenchmarkFixtures.tokenUtils(BenchmarkFixtures.roleRegistry(),
+            BenchmarkFixtures.securityVersions(), compactRoles);
+        user = BenchmarkFixtures.user();
+        TokenPair tokenPair = tokenUtils.createNewTokenPair(user);
+        accessToken = tokenPair.response().accessToken();
+        refreshToken = tokenUtils.verify(tokenPair.response().refreshToken());
+    }
+
+    @Benchmark
+    public String generateAccessToken(TokenSize size) {
+        String token = tokenUtils.generateAccessToken(user);
+        size.record(token);
+        return token;
+    }
+
+    @Benchmark
+    public TokenPair createNewTokenPair() {
+        return tokenUtils.createNewTokenPair(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return tokenUtils.verify(accessToken);
+    }
+
+    @Benchmark
+    public TokenPair refreshToken() {
+        return tokenUtils.refreshToken(refreshToken);
+    }
+
+    /**
+     * Reports the size of the access token issued with and without compact roles next to the
+     * {@code generateAccessToken} score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class TokenSize {
+
+        public int accessTokenChars;
+
+        public int claimsChars;
+
+        void record(String token) {
+            accessTokenChars = token.length();
+            claimsChars = token.lastIndexOf('.') - token.indexOf('.') - 1;
+        }
+    }
+}
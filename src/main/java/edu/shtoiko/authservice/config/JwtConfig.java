@@ -0,0 +1,39 @@
+package edu.shtoiko.authservice.config;
+
+import edu.shtoiko.authservice.service.implementation.SigningKeyRing;
+import edu.shtoiko.authservice.utils.JwtTokenEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Instant;
+
+@Slf4j
+@Configuration
+public class JwtConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    @Bean
+    public JwtTokenEngine jwtTokenEngine(@Value("${jwt.rest.key:}") String secretKey,
+        @Value("${jwt.signing.algorithm:HS256}") String algorithm,
+        @Value("${jwt.signing.legacy_key_retires_at:}") String legacyKeyRetiresAt,
+        ObjectProvider<SigningKeyRing> keyRing, Clock clock) {
+        if ("ES256".equals(algorithm)) {
+            Instant retiresAt = legacyKeyRetiresAt.isBlank() ? null : Instant.parse(legacyKeyRetiresAt);
+            if (retiresAt == null) {
+                log.info("Tokens without a key id are rejected, no legacy key retirement date is configured");
+            } else {
+                log.info("Tokens without a key id are verified with the legacy key until {}", retiresAt);
+            }
+            return new JwtTokenEngine(keyRing.getObject(), secretKey, retiresAt, clock);
+        }
+        return new JwtTokenEngine(secretKey);
+    }
+}
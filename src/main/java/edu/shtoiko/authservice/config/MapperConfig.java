@@ -1,28 +0,0 @@
-package edu.shtoiko.authservice.config;
-
-import org.modelmapper.Converter;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-import java.util.List;
-
-@Configuration
-public class MapperConfig {
-
-    @Bean
-    public ModelMapper getModelMapper(List<Converter<?, ?>> converters) {
-        ModelMapper modelMapper = new ModelMapper();
-        modelMapper
-            .getConfiguration()
-            .setMatchingStrategy(MatchingStrategies.STRICT)
-            .setFieldMatchingEnabled(true)
-            .setSkipNullEnabled(true)
-            .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
-
-        converters.forEach(modelMapper::addConverter);
-
-        return modelMapper;
-    }
-}
@@ -0,0 +1,65 @@
+package edu.shtoiko.authservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.Map;
+
+@Slf4j
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final String BCRYPT = "bcrypt";
+
+    private static final String PBKDF2 = "pbkdf2";
+
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.encoder:bcrypt}") String idForEncode,
+        @Value("${auth.password.bcrypt.strength:0}") int strength,
+        @Value("${auth.password.bcrypt.target_ms:250}") long targetMillis,
+        @Value("${auth.password.bcrypt.min_strength:10}") int minStrength,
+        @Value("${auth.password.bcrypt.max_strength:14}") int maxStrength) {
+        int bcryptStrength = strength > 0 ? strength : calibrateBcrypt(targetMillis, minStrength, maxStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+            BCRYPT, bcrypt,
+            PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(idForEncode)) {
+            throw new IllegalStateException("Unsupported password encoder '" + idForEncode + "', expected one of "
+                + encoders.keySet());
+        }
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        log.info("Password encoder '{}' selected, bcrypt strength {}", idForEncode, bcryptStrength);
+        return passwordEncoder;
+    }
+
+    private static int calibrateBcrypt(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode("calibration");
+        long[] samples = new long[CALIBRATION_ROUNDS];
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double millisAtMin = samples[CALIBRATION_ROUNDS / 2] / 1_000_000.0;
+        int strength = minStrength;
+        while (strength < maxStrength && millisAtMin * (1L << (strength + 1 - minStrength)) <= targetMillis) {
+            strength++;
+        }
+        log.info("bcrypt calibration: {} ms at strength {}, target {} ms, using strength {}",
+            String.format("%.1f", millisAtMin), minStrength, targetMillis, strength);
+        return strength;
+    }
+}
@@ -1,16 +1,24 @@
 package edu.shtoiko.authservice.config;
 
+import edu.shtoiko.authservice.metrics.AuthMetrics;
+import edu.shtoiko.authservice.service.implementation.RoleRegistry;
 import edu.shtoiko.authservice.utils.CustomJwtAuthenticationConverter;
 import edu.shtoiko.authservice.utils.CustomJwtDecoder;
 import edu.shtoiko.authservice.utils.CustomJwtGrantedAuthoritiesConverter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.util.ArrayList;
 
 @Configuration
 @RequiredArgsConstructor
@@ -19,24 +27,45 @@ public class SecurityConfig {
 
     private final CustomJwtDecoder jwtDecoder;
 
+    private final RoleRegistry roleRegistry;
+
+    private final AuthMetrics authMetrics;
+
+    private final ObjectProvider<UserDetailsService> userDetailsService;
+
+    @Value("${auth.security.mode:stateless}")
+    private String securityMode;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/prometheus").hasAuthority("METRICS_READ")
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/auth/user/**").authenticated()
                 .anyRequest().authenticated())
             .oauth2ResourceServer(oauth -> oauth.jwt(jwt -> jwt.decoder(jwtDecoder)
                 .jwtAuthenticationConverter(jwtAuthenticationConverter())));
+        if ("stateless".equals(securityMode)) {
+            http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+        }
         return http.build();
     }
 
     @Bean
     public CustomJwtAuthenticationConverter jwtAuthenticationConverter() {
-        CustomJwtAuthenticationConverter converter = new CustomJwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(new CustomJwtGrantedAuthoritiesConverter());
+        CustomJwtAuthenticationConverter converter = new CustomJwtAuthenticationConverter(authMetrics);
+        if ("stateful".equals(securityMode)) {
+            UserDetailsService users = userDetailsService.getObject();
+            converter.setJwtGrantedAuthoritiesConverter(
+                jwt -> new ArrayList<GrantedAuthority>(users.loadUserByUsername(jwt.getSubject()).getAuthorities()));
+        } else {
+            converter.setJwtGrantedAuthoritiesConverter(new CustomJwtGrantedAuthoritiesConverter(roleRegistry));
+        }
         return converter;
     }
 }
@@ -1,6 +1,9 @@
 package edu.shtoiko.authservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.shtoiko.authservice.model.dto.*;
+import edu.shtoiko.authservice.service.UserBulkService;
 import edu.shtoiko.authservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,13 +11,18 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @RestController
@@ -25,6 +33,10 @@ public class AuthController {
 
     private final UserService userService;
 
+    private final UserBulkService userBulkService;
+
+    private final ObjectMapper objectMapper;
+
     @Operation(summary = "Login user",
         description = "Authenticates a user and returns a JWT token upon successful login.")
     @ApiResponses(value = {
@@ -50,10 +62,27 @@ public class AuthController {
     @PreAuthorize("hasAuthority('USERMANAGER_WRITE')")
     @PostMapping("/user/register")
     public ResponseEntity<?> registerNewUser(
-        @Parameter(description = "User details for registration", required = true) @RequestBody UserDto userDto) {
+        @Parameter(description = "User details for registration",
+            required = true) @Valid @RequestBody UserDto userDto) {
         return new ResponseEntity<>(userService.registerUser(userDto), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Register users in bulk",
+        description = "Registers a batch of users with batched inserts and returns a per-row result report. Accessible only to users with USERMANAGER_WRITE authority.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed, see per-row results"),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Batch size exceeds the limit"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Insufficient permissions"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAuthority('USERMANAGER_WRITE')")
+    @PostMapping("/user/register/bulk")
+    public ResponseEntity<?> registerNewUsers(
+        @Parameter(description = "Users to register", required = true) @RequestBody List<@Valid UserDto> users) {
+        return ResponseEntity.ok(userBulkService.registerUsers(users));
+    }
+
     @Operation(summary = "Logout user", description = "Logs out a user and invalidates the provided refresh token.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Logout successful"),
@@ -121,6 +150,23 @@ public class AuthController {
         return ResponseEntity.ok(userService.changeRoles(userId, roles));
     }
 
+    @Operation(summary = "Change roles of users in bulk",
+        description = "Replaces the roles of a batch of users and returns a per-row result report. Accessible only to users with ADMIN authority.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed, see per-row results"),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Batch size exceeds the limit"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Insufficient permissions"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PutMapping("/user/roles")
+    public ResponseEntity<?> changeUsersRoles(
+        @Parameter(description = "User IDs with the roles to assign to each user",
+            required = true) @RequestBody List<UserRolesRequest> requests) {
+        return ResponseEntity.ok(userBulkService.changeRoles(requests));
+    }
+
     @Operation(summary = "Get secured user by ID",
         description = "Retrieves secured user details including roles and active sessions. Accessible to the user themselves or users with ADMIN authority.")
     @ApiResponses(value = {
@@ -151,4 +197,69 @@ public class AuthController {
         @Parameter(description = "Email address of the user to retrieve", required = true) @RequestParam String email) {
         return ResponseEntity.ok(userService.getSecuredUserDtoByEmail(email));
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Get secured users in batch",
+        description = "Retrieves secured user details for a batch of user IDs and/or emails. Users that are not found are reported per item. Accessible only to users with ADMIN authority.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed successfully"),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Batch size exceeds the limit"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Insufficient permissions"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/user/batch")
+    public ResponseEntity<StreamingResponseBody> getSecuredUsers(
+        @Parameter(description = "User IDs and/or emails to retrieve",
+            required = true) @RequestBody UserBatchRequest batchRequest) {
+        Stream<UserLookupResult> results = userService.getSecuredUserDtos(batchRequest);
+        StreamingResponseBody body = outputStream -> {
+            try (results;
+                JsonGenerator generator = objectMapper.createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.writeStartArray();
+                Iterator<UserLookupResult> iterator = results.iterator();
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "List active sessions of a user",
+        description = "Returns a page of the user's active sessions ordered by last activity, newest first. Pass nextCursor from the previous page to continue. Accessible to the user themselves or users with ADMIN authority.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sessions retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Invalid cursor"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Insufficient permissions"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("#userId == authentication.details or hasAuthority('ADMIN')")
+    @GetMapping("/user/{userId}/sessions")
+    public ResponseEntity<?> getActiveSessions(
+        @Parameter(description = "ID of the user whose sessions to list", required = true) @PathVariable Long userId,
+        @Parameter(description = "Cursor returned with the previous page") @RequestParam(
+            required = false) String cursor,
+        @Parameter(description = "Maximum number of sessions to return") @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(userService.getActiveSessions(userId, cursor, limit));
+    }
+
+    @Operation(summary = "Revoke all sessions of a user",
+        description = "Invalidates every refresh token of the user. Accessible to the user themselves or users with ADMIN authority.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sessions revoked successfully"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Insufficient permissions"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("#userId == authentication.details or hasAuthority('ADMIN')")
+    @DeleteMapping("/user/{userId}/sessions")
+    public ResponseEntity<?> revokeAllSessions(
+        @Parameter(description = "ID of the user whose sessions to revoke",
+            required = true) @PathVariable Long userId) {
+        return ResponseEntity.ok(userService.revokeAllSessions(userId));
+    }
+}
@@ -0,0 +1,47 @@
+package edu.shtoiko.authservice.controller;
+
+import edu.shtoiko.authservice.service.implementation.SigningKeyRing;
+import edu.shtoiko.authservice.service.implementation.SigningKeyRing.Jwks;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@ConditionalOnProperty(name = "jwt.signing.algorithm", havingValue = "ES256")
+@Tag(name = "JWKS Controller", description = "Controller for publishing the public keys that verify issued tokens")
+public class JwksController {
+
+    private final SigningKeyRing keyRing;
+
+    private final CacheControl cacheControl;
+
+    public JwksController(SigningKeyRing keyRing, @Value("${jwt.signing.jwks_max_age:PT5M}") Duration maxAge) {
+        this.keyRing = keyRing;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    @Operation(summary = "Get JSON Web Key Set",
+        description = "Returns the public keys used to verify tokens, addressed by kid. Supports conditional requests via ETag.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Key set retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Key set not modified")
+    })
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJwks() {
+        Jwks jwks = keyRing.jwks();
+        return ResponseEntity.ok()
+            .cacheControl(cacheControl)
+            .eTag(jwks.etag())
+            .body(jwks.json());
+    }
+}
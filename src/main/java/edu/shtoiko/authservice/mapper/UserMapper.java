@@ -0,0 +1,20 @@
+package edu.shtoiko.authservice.mapper;
+
+import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.model.dto.SecuredUserDto;
+import edu.shtoiko.authservice.model.dto.UserDto;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface UserMapper {
+
+    @Mapping(target = "roles", ignore = true)
+    @Mapping(target = "sessions", ignore = true)
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "authorities", ignore = true)
+    SecuredUser toSecuredUser(UserDto userDto);
+
+    SecuredUserDto toSecuredUserDto(SecuredUser user);
+}
@@ -0,0 +1,79 @@
+package edu.shtoiko.authservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class AuthMetrics {
+
+    private final Timer loginTimer;
+
+    private final Timer refreshTimer;
+
+    private final Timer decodeTimer;
+
+    private final Timer parseTimer;
+
+    private final Timer signTimer;
+
+    private final Map<TokenOutcome, Counter> tokenOutcomes = new EnumMap<>(TokenOutcome.class);
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.loginTimer = stageTimer("login", "Time spent logging a user in", meterRegistry);
+        this.refreshTimer = stageTimer("refresh", "Time spent refreshing a token pair", meterRegistry);
+        this.decodeTimer = stageTimer("decode", "Time spent decoding a bearer token", meterRegistry);
+        this.parseTimer = Timer.builder("auth.flow.jwt.parse")
+            .description("Time spent verifying a JWT signature and parsing its claims")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.signTimer = Timer.builder("auth.flow.jwt.sign")
+            .description("Time spent building and signing a JWT")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        for (TokenOutcome outcome : TokenOutcome.values()) {
+            tokenOutcomes.put(outcome, Counter.builder("auth.flow.token.outcome")
+                .description("Bearer tokens by validation outcome")
+                .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+        }
+    }
+
+    public void recordLogin(long startNanos) {
+        loginTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRefresh(long startNanos) {
+        refreshTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDecode(long startNanos) {
+        decodeTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordParse(long startNanos) {
+        parseTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSign(long startNanos) {
+        signTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tokenOutcome(TokenOutcome outcome) {
+        tokenOutcomes.get(outcome).increment();
+    }
+
+    private static Timer stageTimer(String stage, String description, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.flow.stage")
+            .description(description)
+            .tag("stage", stage)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
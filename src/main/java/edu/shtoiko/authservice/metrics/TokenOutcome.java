@@ -0,0 +1,11 @@
+package edu.shtoiko.authservice.metrics;
+
+public enum TokenOutcome {
+    VALID,
+    EXPIRED,
+    BAD_SIGNATURE,
+    MALFORMED,
+    WRONG_TYPE,
+    REVOKED,
+    STALE_VERSION
+}
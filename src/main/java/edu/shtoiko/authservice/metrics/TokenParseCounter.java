@@ -0,0 +1,35 @@
+package edu.shtoiko.authservice.metrics;
+
+public final class TokenParseCounter {
+
+    private static final ThreadLocal<int[]> PARSES = new ThreadLocal<>();
+
+    private static volatile boolean enabled;
+
+    private TokenParseCounter() {
+    }
+
+    public static void increment() {
+        if (!enabled) {
+            return;
+        }
+        int[] parses = PARSES.get();
+        if (parses != null) {
+            parses[0]++;
+        }
+    }
+
+    static void setEnabled(boolean enabled) {
+        TokenParseCounter.enabled = enabled;
+    }
+
+    static void start() {
+        PARSES.set(new int[1]);
+    }
+
+    static int stop() {
+        int[] parses = PARSES.get();
+        PARSES.remove();
+        return parses != null ? parses[0] : 0;
+    }
+}
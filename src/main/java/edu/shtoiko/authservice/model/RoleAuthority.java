@@ -0,0 +1,19 @@
+package edu.shtoiko.authservice.model;
+
+import org.springframework.security.core.GrantedAuthority;
+
+public record RoleAuthority(long id, String name) implements GrantedAuthority {
+
+    public static RoleAuthority of(Role role) {
+        return new RoleAuthority(role.getId(), role.getName());
+    }
+
+    public Role toEntity() {
+        return new Role(id, name);
+    }
+
+    @Override
+    public String getAuthority() {
+        return name;
+    }
+}
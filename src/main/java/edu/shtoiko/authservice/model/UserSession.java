@@ -23,8 +23,8 @@ public class UserSession {
     @JoinColumn(name = "user_id", nullable = false)
     private SecuredUser user;
 
-    @Column(name = "refresh_token", nullable = false, unique = true)
-    private String refreshToken;
+    @Column(name = "refresh_token_hash", nullable = false, unique = true)
+    private byte[] refreshTokenHash;
 
     @Column(name = "ip_address", nullable = false)
     private String ipAddress;
@@ -44,4 +44,8 @@ public class UserSession {
     @Column(name = "expires_at", nullable = false)
     private Instant expiresAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
 }
@@ -0,0 +1,13 @@
+package edu.shtoiko.authservice.model.dto;
+
+public record BulkRowResult(int row, Long userId, String email, Status status, String message) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        CONFLICT,
+        NOT_FOUND,
+        INVALID,
+        FAILED
+    }
+}
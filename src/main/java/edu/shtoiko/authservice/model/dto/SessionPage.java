@@ -0,0 +1,6 @@
+package edu.shtoiko.authservice.model.dto;
+
+import java.util.List;
+
+public record SessionPage(List<UserSessionDto> sessions, String nextCursor) {
+}
@@ -0,0 +1,17 @@
+package edu.shtoiko.authservice.model.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserBatchRequest {
+
+    private List<Long> ids;
+
+    private List<String> emails;
+}
@@ -1,6 +1,8 @@
 package edu.shtoiko.authservice.model.dto;
 
-import jakarta.persistence.Column;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,7 +11,11 @@ import lombok.Setter;
 public class UserDto {
     private Long id;
 
+    @NotBlank(message = "Email cannot be blank")
+    @Email(message = "Email must be a well-formed email address")
+    @Size(max = 255, message = "Email cannot exceed 255 characters")
     private String email;
 
+    @NotBlank(message = "Password cannot be blank")
     private String password;
 }
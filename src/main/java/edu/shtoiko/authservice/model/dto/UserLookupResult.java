@@ -0,0 +1,12 @@
+package edu.shtoiko.authservice.model.dto;
+
+public record UserLookupResult(String key, boolean found, SecuredUserDto user) {
+
+    public static UserLookupResult found(String key, SecuredUserDto user) {
+        return new UserLookupResult(key, true, user);
+    }
+
+    public static UserLookupResult notFound(String key) {
+        return new UserLookupResult(key, false, null);
+    }
+}
@@ -0,0 +1,7 @@
+package edu.shtoiko.authservice.model.dto;
+
+import java.time.Instant;
+
+public record UserSessionDto(Long id, String ipAddress, String userAgent, String deviceType, Instant startTime,
+    Instant lastActivity, Instant expiresAt) {
+}
@@ -0,0 +1,4 @@
+package edu.shtoiko.authservice.model.projection;
+
+public record UserRoleRow(Long id, String email, String roleName) {
+}
@@ -1,10 +1,15 @@
 package edu.shtoiko.authservice.repository;
 
 import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.model.projection.UserRoleRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<SecuredUser, Long> {
@@ -13,4 +18,27 @@ public interface UserRepository extends JpaRepository<SecuredUser, Long> {
     SecuredUser findByEmail(@Param("email") String email);
 
     boolean existsByEmail(String email);
+
+    @Query(value = "SELECT id FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new edu.shtoiko.authservice.model.projection.UserRoleRow(u.id, u.email, r.name) "
+        + "FROM SecuredUser u LEFT JOIN u.roles r WHERE u.id = :id")
+    List<UserRoleRow> findUserRolesById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new edu.shtoiko.authservice.model.projection.UserRoleRow(u.id, u.email, r.name) "
+        + "FROM SecuredUser u LEFT JOIN u.roles r WHERE u.email = :email")
+    List<UserRoleRow> findUserRolesByEmail(@Param("email") String email);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new edu.shtoiko.authservice.model.projection.UserRoleRow(u.id, u.email, r.name) "
+        + "FROM SecuredUser u LEFT JOIN u.roles r WHERE u.id IN :ids")
+    List<UserRoleRow> findUserRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new edu.shtoiko.authservice.model.projection.UserRoleRow(u.id, u.email, r.name) "
+        + "FROM SecuredUser u LEFT JOIN u.roles r WHERE u.email IN :emails")
+    List<UserRoleRow> findUserRolesByEmailIn(@Param("emails") Collection<String> emails);
 }
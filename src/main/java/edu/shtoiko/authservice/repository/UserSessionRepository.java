@@ -1,22 +1,66 @@
 package edu.shtoiko.authservice.repository;
 
 import edu.shtoiko.authservice.model.UserSession;
+import edu.shtoiko.authservice.model.dto.UserSessionDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
 
-    boolean existsByRefreshToken(String refreshToken);
-
     List<UserSession> findByUserId(Long userId);
 
-    UserSession findByRefreshToken(String refreshToken);
+    UserSession findByRefreshTokenHash(byte[] refreshTokenHash);
+
+    @Modifying
+    @Query("DELETE FROM UserSession s WHERE s.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new edu.shtoiko.authservice.model.dto.UserSessionDto(s.id, s.ipAddress, s.userAgent, "
+        + "s.deviceType, s.startTime, s.lastActivity, s.expiresAt) FROM UserSession s "
+        + "WHERE s.user.id = :userId AND s.expiresAt > :now ORDER BY s.lastActivity DESC, s.id DESC")
+    List<UserSessionDto> findActiveByUserId(@Param("userId") Long userId, @Param("now") Instant now, Limit limit);
+
+    @Query("SELECT new edu.shtoiko.authservice.model.dto.UserSessionDto(s.id, s.ipAddress, s.userAgent, "
+        + "s.deviceType, s.startTime, s.lastActivity, s.expiresAt) FROM UserSession s "
+        + "WHERE s.user.id = :userId AND s.expiresAt > :now AND (s.lastActivity < :lastActivity "
+        + "OR (s.lastActivity = :lastActivity AND s.id < :id)) ORDER BY s.lastActivity DESC, s.id DESC")
+    List<UserSessionDto> findActiveByUserIdAfter(@Param("userId") Long userId, @Param("now") Instant now,
+        @Param("lastActivity") Instant lastActivity, @Param("id") Long id, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM UserSession s WHERE s.refreshTokenHash = :refreshTokenHash")
+    int deleteByRefreshTokenHash(@Param("refreshTokenHash") byte[] refreshTokenHash);
+
+    @Query("SELECT s.version FROM UserSession s WHERE s.refreshTokenHash = :refreshTokenHash")
+    Optional<Long> findVersionByRefreshTokenHash(@Param("refreshTokenHash") byte[] refreshTokenHash);
+
+    @Modifying
+    @Query("UPDATE UserSession s SET s.refreshTokenHash = :newHash, s.expiresAt = :expiresAt, "
+        + "s.lastActivity = :lastActivity, s.version = s.version + 1 "
+        + "WHERE s.refreshTokenHash = :currentHash AND s.version = :version")
+    int rotateRefreshToken(@Param("currentHash") byte[] currentHash, @Param("version") long version,
+        @Param("newHash") byte[] newHash, @Param("expiresAt") Instant expiresAt,
+        @Param("lastActivity") Instant lastActivity);
+
+    long countByExpiresAtBefore(Instant time);
 
-    void deleteByUserId(Long userId);
+    long countByExpiresAtAfter(Instant time);
 
-    void deleteByRefreshToken(String refreshToken);
+    @Modifying
+    @Query(value = "DELETE FROM user_sessions WHERE id IN "
+        + "(SELECT id FROM user_sessions WHERE expires_at < :time ORDER BY expires_at LIMIT :limit)",
+        nativeQuery = true)
+    int deleteExpiredBatch(@Param("time") Instant time, @Param("limit") int limit);
 
-    void deleteAllByExpiresAtBefore(Instant time);
+    @Modifying
+    @Query(value = "DELETE FROM user_sessions WHERE id IN (SELECT id FROM user_sessions WHERE user_id = :userId "
+        + "ORDER BY last_activity DESC, id DESC OFFSET :keep)", nativeQuery = true)
+    int deleteOldestBeyond(@Param("userId") Long userId, @Param("keep") int keep);
 }
@@ -0,0 +1,13 @@
+package edu.shtoiko.authservice.service;
+
+import java.util.List;
+
+public interface PasswordHashingService {
+    boolean matches(CharSequence rawPassword, String encodedPassword);
+
+    String encode(CharSequence rawPassword);
+
+    List<String> encodeAll(List<? extends CharSequence> rawPasswords);
+
+    boolean upgradeEncoding(String encodedPassword);
+}
@@ -0,0 +1,13 @@
+package edu.shtoiko.authservice.service;
+
+import edu.shtoiko.authservice.model.dto.BulkRowResult;
+import edu.shtoiko.authservice.model.dto.UserDto;
+import edu.shtoiko.authservice.model.dto.UserRolesRequest;
+
+import java.util.List;
+
+public interface UserBulkService {
+    List<BulkRowResult> registerUsers(List<UserDto> users);
+
+    List<BulkRowResult> changeRoles(List<UserRolesRequest> requests);
+}
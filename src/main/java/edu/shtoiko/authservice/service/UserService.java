@@ -5,6 +5,7 @@ import edu.shtoiko.authservice.model.dto.*;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserService {
     JwtResponse loginUser(String email, String password);
@@ -22,4 +23,10 @@ public interface UserService {
     SecuredUserDto getSecuredUserDtoById(Long userId);
 
     SecuredUserDto getSecuredUserDtoByEmail(String email);
+
+    Stream<UserLookupResult> getSecuredUserDtos(UserBatchRequest batchRequest);
+
+    SessionPage getActiveSessions(Long userId, String cursor, int limit);
+
+    String revokeAllSessions(Long userId);
 }
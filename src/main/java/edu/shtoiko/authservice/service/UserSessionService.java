@@ -2,7 +2,9 @@ package edu.shtoiko.authservice.service;
 
 import edu.shtoiko.authservice.model.SecuredUser;
 import edu.shtoiko.authservice.model.UserSession;
+import edu.shtoiko.authservice.model.dto.SessionPage;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface UserSessionService {
@@ -12,9 +14,17 @@ public interface UserSessionService {
 
     void deleteByRefreshToken(String refreshToken);
 
-    boolean updateRefreshToken(String currentRefreshToken, String newRefreshToken);
+    boolean updateRefreshToken(String currentRefreshToken, String newRefreshToken, Instant newExpiresAt);
 
-    UserSession saveSession(SecuredUser user, String token);
+    UserSession saveSession(SecuredUser user, String token, Instant expiresAt);
 
-    void deleteExpiredSessions();
+    int deleteExpiredSessions(Instant before, int limit);
+
+    long countExpiredSessions(Instant before);
+
+    long countActiveSessions(Instant at);
+
+    SessionPage findActiveSessions(Long userId, String cursor, int limit);
+
+    int deleteAllByUserId(Long userId);
 }
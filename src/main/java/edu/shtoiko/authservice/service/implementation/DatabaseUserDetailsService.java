@@ -0,0 +1,27 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.security.mode", havingValue = "stateful")
+public class DatabaseUserDetailsService implements UserDetailsService {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        SecuredUser user = userRepository.findByEmail(username);
+        if (user == null) {
+            throw new UsernameNotFoundException("User " + username + " not found");
+        }
+        return user;
+    }
+}
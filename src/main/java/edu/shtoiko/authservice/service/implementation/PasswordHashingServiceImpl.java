@@ -0,0 +1,181 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import edu.shtoiko.authservice.exception.ResponseException;
+import edu.shtoiko.authservice.exception.TooManyRequestsException;
+import edu.shtoiko.authservice.service.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+    private static final String POOL_NAME = "password-hash";
+
+    private static final String BULK_POOL_NAME = "password-hash-bulk";
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ThreadPoolExecutor bulkExecutor;
+
+    private final long retryAfterSeconds;
+
+    private final int bulkParallelism;
+
+    private final Timer verifyTimer;
+
+    private final Timer encodeTimer;
+
+    private final Timer waitTimer;
+
+    public PasswordHashingServiceImpl(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+        @Value("${auth.password.executor.pool_size:0}") int poolSize,
+        @Value("${auth.password.executor.queue_capacity:64}") int queueCapacity,
+        @Value("${auth.password.executor.retry_after_seconds:1}") long retryAfterSeconds,
+        @Value("${auth.password.executor.bulk_pool_size:0}") int bulkPoolSize) {
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        int bulkThreads = bulkPoolSize > 0 ? bulkPoolSize : Math.max(1, threads / 2);
+        this.bulkParallelism = Math.max(1, Math.min(bulkThreads, queueCapacity / 2));
+        this.executor = hashingPool(POOL_NAME, threads, queueCapacity);
+        this.bulkExecutor = hashingPool(BULK_POOL_NAME, bulkThreads, queueCapacity);
+        new ExecutorServiceMetrics(executor, POOL_NAME, Tags.empty()).bindTo(meterRegistry);
+        new ExecutorServiceMetrics(bulkExecutor, BULK_POOL_NAME, Tags.empty()).bindTo(meterRegistry);
+        this.verifyTimer = hashTimer("verify", meterRegistry);
+        this.encodeTimer = hashTimer("encode", meterRegistry);
+        this.waitTimer = Timer.builder("auth.password.executor.wait")
+            .description("Time a password hashing task waited in the queue before it started")
+            .tag("name", POOL_NAME)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        log.info("Password hashing pool started with {} threads, {} bulk threads and a queue of {}", threads,
+            bulkThreads, queueCapacity);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(verifyTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        Semaphore inFlight = new Semaphore(bulkParallelism);
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                inFlight.acquire();
+                try {
+                    futures.add(bulkExecutor.submit(() -> {
+                        try {
+                            return encodeTimer.record(() -> passwordEncoder.encode(rawPassword));
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw new TooManyRequestsException("Too many authentication requests, try again later",
+                        retryAfterSeconds);
+                }
+            }
+            List<String> encoded = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                encoded.add(future.get());
+            }
+            return encoded;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ResponseException(HttpStatus.SERVICE_UNAVAILABLE, "Password hashing interrupted");
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        bulkExecutor.shutdown();
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many authentication requests, try again later",
+                retryAfterSeconds);
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseException(HttpStatus.SERVICE_UNAVAILABLE, "Password verification interrupted");
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    private static ThreadPoolExecutor hashingPool(String name, int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofPlatform().name(name + "-", 0).daemon().factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static Timer hashTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.password.hash")
+            .description("Time spent hashing or verifying a password")
+            .tag("operation", operation)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+}
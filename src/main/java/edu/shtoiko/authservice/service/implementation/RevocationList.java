@@ -0,0 +1,120 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import edu.shtoiko.authservice.utils.AfterCommit;
+import edu.shtoiko.authservice.utils.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class RevocationList {
+
+    private static final String INSERT_SESSION = "INSERT INTO revoked_tokens (session_id, expires_at) VALUES (?, ?)";
+
+    private static final String SELECT_SINCE = "SELECT session_id, expires_at, created_at "
+        + "FROM revoked_tokens WHERE created_at > ? AND expires_at > ? ORDER BY created_at";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM revoked_tokens WHERE expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final long accessTokenExpirationTime;
+
+    private final int expectedEntries;
+
+    private final double falsePositiveRate;
+
+    private final long pollOverlapMs;
+
+    private final Map<String, Long> sessions = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile BloomFilter filter;
+
+    private Instant lastSeen = Instant.EPOCH;
+
+    private long nextRebuild;
+
+    public RevocationList(JdbcTemplate jdbcTemplate,
+        @Value("${jwt.rest.expiration_time.access}") long accessTokenExpirationTime,
+        @Value("${auth.revocation.expected_entries:100000}") int expectedEntries,
+        @Value("${auth.revocation.false_positive_rate:0.01}") double falsePositiveRate,
+        @Value("${auth.revocation.poll_overlap_ms:5000}") long pollOverlapMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accessTokenExpirationTime = accessTokenExpirationTime;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pollOverlapMs = pollOverlapMs;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void init() {
+        poll();
+    }
+
+    public boolean isRevoked(String sessionId) {
+        return sessionId != null && filter.mightContain(BloomFilter.hash(sessionId))
+            && sessions.containsKey(sessionId);
+    }
+
+    public void revokeSession(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + accessTokenExpirationTime;
+        jdbcTemplate.update(INSERT_SESSION, sessionId, new Timestamp(expiresAt));
+        AfterCommit.run(() -> addSession(sessionId, expiresAt));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.poll_interval_ms:1000}")
+    public void poll() {
+        Instant now = Instant.now();
+        jdbcTemplate.query(SELECT_SINCE, rs -> {
+            addSession(rs.getString("session_id"), rs.getTimestamp("expires_at").getTime());
+            Instant createdAt = rs.getTimestamp("created_at").toInstant();
+            if (createdAt.isAfter(lastSeen)) {
+                lastSeen = createdAt;
+            }
+        }, Timestamp.from(lastSeen.minusMillis(pollOverlapMs)), Timestamp.from(now));
+        if (now.toEpochMilli() >= nextRebuild) {
+            rebuild(now.toEpochMilli());
+            jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(now));
+            nextRebuild = now.toEpochMilli() + accessTokenExpirationTime;
+        }
+    }
+
+    private void addSession(String sessionId, long expiresAt) {
+        writeLock.lock();
+        try {
+            sessions.merge(sessionId, expiresAt, Math::max);
+            filter.put(BloomFilter.hash(sessionId));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rebuild(long now) {
+        writeLock.lock();
+        try {
+            sessions.values().removeIf(expiresAt -> expiresAt <= now);
+            BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+            sessions.keySet().forEach(sessionId -> rebuilt.put(BloomFilter.hash(sessionId)));
+            filter = rebuilt;
+            log.debug("Revocation filter rebuilt with {} sessions", sessions.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import edu.shtoiko.authservice.model.Role;
+import edu.shtoiko.authservice.model.RoleAuthority;
+import edu.shtoiko.authservice.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleRegistry {
+
+    private static final long MIN_ASYNC_REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RoleRepository roleRepository;
+
+    private final Map<String, GrantedAuthority> unknownAuthorities = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile long lastRefreshNanos = System.nanoTime();
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), Map.of(), 0L);
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.roles.refresh_interval_ms:300000}",
+        initialDelayString = "${auth.roles.refresh_interval_ms:300000}")
+    public void refresh() {
+        lastRefreshNanos = System.nanoTime();
+        List<RoleAuthority> roles = roleRepository.findAll().stream().map(RoleAuthority::of).toList();
+        snapshot = new Snapshot(roles,
+            roles.stream().collect(Collectors.toUnmodifiableMap(RoleAuthority::name, Function.identity())),
+            roles.stream().collect(Collectors.toUnmodifiableMap(RoleAuthority::id, Function.identity())),
+            roles.stream().mapToLong(RoleAuthority::id).max().orElse(0L));
+        log.debug("Role registry loaded {} roles", roles.size());
+    }
+
+    public void refreshIfBehind(long version) {
+        if (version > snapshot.version()) {
+            refreshLock.lock();
+            try {
+                if (version > snapshot.version()) {
+                    refresh();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+
+    public long getVersion() {
+        return snapshot.version();
+    }
+
+    public List<RoleAuthority> getAll() {
+        return snapshot.roles();
+    }
+
+    public RoleAuthority findByName(String name) {
+        return snapshot.byName().get(name);
+    }
+
+    public RoleAuthority findById(long id) {
+        return snapshot.byId().get(id);
+    }
+
+    public List<RoleAuthority> findAllByNames(Collection<String> names) {
+        Map<String, RoleAuthority> byName = snapshot.byName();
+        List<RoleAuthority> roles = new ArrayList<>(names.size());
+        for (String name : names) {
+            RoleAuthority role = byName.get(name);
+            if (role != null) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    public Role resolve(String name) {
+        RoleAuthority role = snapshot.byName().get(name);
+        return role != null ? role.toEntity() : new Role(name);
+    }
+
+    public GrantedAuthority authority(String name) {
+        RoleAuthority role = snapshot.byName().get(name);
+        if (role != null) {
+            return role;
+        }
+        return unknownAuthorities.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
+    public String encodeRoleBits(Collection<? extends GrantedAuthority> authorities) {
+        Map<String, RoleAuthority> byName = snapshot.byName();
+        BitSet bits = new BitSet();
+        for (GrantedAuthority authority : authorities) {
+            RoleAuthority role = byName.get(authority.getAuthority());
+            if (role == null) {
+                return null;
+            }
+            bits.set(Math.toIntExact(role.id()));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    public List<RoleAuthority> decodeRoleBits(String roleBits, long version) {
+        if (version > snapshot.version()) {
+            refreshAsync();
+        }
+        Map<Long, RoleAuthority> byId = snapshot.byId();
+        BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(roleBits));
+        List<RoleAuthority> roles = new ArrayList<>(bits.cardinality());
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            RoleAuthority role = byId.get((long) id);
+            if (role != null) {
+                roles.add(role);
+            } else {
+                log.debug("Token references role id {} unknown to the registry", id);
+            }
+        }
+        return roles;
+    }
+
+    private void refreshAsync() {
+        if (System.nanoTime() - lastRefreshNanos < MIN_ASYNC_REFRESH_INTERVAL_NANOS
+            || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("role-registry-refresh").start(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Role registry refresh failed", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private record Snapshot(List<RoleAuthority> roles, Map<String, RoleAuthority> byName,
+        Map<Long, RoleAuthority> byId, long version) {
+    }
+}
@@ -1,6 +1,7 @@
 package edu.shtoiko.authservice.service.implementation;
 
 import edu.shtoiko.authservice.model.Role;
+import edu.shtoiko.authservice.model.RoleAuthority;
 import edu.shtoiko.authservice.model.dto.RoleRequest;
 import edu.shtoiko.authservice.repository.RoleRepository;
 import edu.shtoiko.authservice.service.RoleService;
@@ -8,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -15,18 +17,26 @@ public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
 
+    private final RoleRegistry roleRegistry;
+
     @Override
     public List<Role> getRolesByNames(List<String> roleNames) {
-        return roleRepository.findAllByNameIn(roleNames);
+        return toEntities(roleRegistry.findAllByNames(roleNames));
     }
 
     @Override
     public List<Role> getAllRoles() {
-        return roleRepository.findAll();
+        return toEntities(roleRegistry.getAll());
     }
 
     @Override
     public Role create(RoleRequest role) {
-        return roleRepository.save(new Role(role.getName()));
+        Role created = roleRepository.save(new Role(role.getName()));
+        roleRegistry.refresh();
+        return created;
+    }
+
+    private static List<Role> toEntities(List<RoleAuthority> roles) {
+        return roles.stream().map(RoleAuthority::toEntity).collect(Collectors.toList());
     }
 }
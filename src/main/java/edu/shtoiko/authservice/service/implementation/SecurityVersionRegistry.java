@@ -0,0 +1,105 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import edu.shtoiko.authservice.utils.AfterCommit;
+import edu.shtoiko.authservice.utils.LongIntMap;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Slf4j
+@Component
+public class SecurityVersionRegistry {
+
+    private static final String SELECT_ALL = "SELECT id, security_version, security_version_updated_at FROM users "
+        + "WHERE security_version > 0";
+
+    private static final String SELECT_SINCE = "SELECT id, security_version, security_version_updated_at FROM users "
+        + "WHERE security_version_updated_at > ?";
+
+    private static final String SELECT_NOW = "SELECT LOCALTIMESTAMP";
+
+    private static final String SELECT_ONE = "SELECT security_version FROM users WHERE id = ?";
+
+    private static final String BUMP = "UPDATE users SET security_version = security_version + 1, "
+        + "security_version_updated_at = CAST(clock_timestamp() AS TIMESTAMP) WHERE id = ANY (?) "
+        + "RETURNING id, security_version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final long pollOverlapMs;
+
+    private final LongIntMap versions;
+
+    private Instant lastSeen = Instant.EPOCH;
+
+    public SecurityVersionRegistry(JdbcTemplate jdbcTemplate,
+        @Value("${auth.security_version.expected_users:100000}") int expectedUsers,
+        @Value("${auth.security_version.poll_overlap_ms:5000}") long pollOverlapMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pollOverlapMs = pollOverlapMs;
+        this.versions = new LongIntMap(expectedUsers);
+    }
+
+    @PostConstruct
+    public void init() {
+        lastSeen = jdbcTemplate.queryForObject(SELECT_NOW, Timestamp.class).toInstant();
+        jdbcTemplate.query(SELECT_ALL, rs -> {
+            apply(rs.getLong("id"), rs.getInt("security_version"),
+                rs.getTimestamp("security_version_updated_at").toInstant());
+        });
+        log.info("Loaded security versions of {} users", versions.size());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.security_version.poll_interval_ms:1000}")
+    public void poll() {
+        jdbcTemplate.query(SELECT_SINCE, rs -> {
+            apply(rs.getLong("id"), rs.getInt("security_version"),
+                rs.getTimestamp("security_version_updated_at").toInstant());
+        }, Timestamp.from(lastSeen.minusMillis(pollOverlapMs)));
+    }
+
+    public int current(long userId) {
+        return versions.get(userId, 0);
+    }
+
+    public boolean isCurrent(long userId, int version) {
+        return version >= versions.get(userId, 0);
+    }
+
+    public int reload(long userId) {
+        List<Integer> version = jdbcTemplate.queryForList(SELECT_ONE, Integer.class, userId);
+        if (!version.isEmpty()) {
+            versions.putMax(userId, version.get(0));
+        }
+        return current(userId);
+    }
+
+    public void bump(long userId) {
+        bumpAll(List.of(userId));
+    }
+
+    public void bumpAll(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<long[]> bumped = jdbcTemplate.query(BUMP,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds.toArray())),
+            (rs, rowNum) -> new long[] {rs.getLong("id"), rs.getInt("security_version")});
+        AfterCommit.run(() -> bumped.forEach(version -> versions.putMax(version[0], (int) version[1])));
+    }
+
+    private void apply(long userId, int version, Instant updatedAt) {
+        versions.putMax(userId, version);
+        if (updatedAt.isAfter(lastSeen)) {
+            lastSeen = updatedAt;
+        }
+    }
+}
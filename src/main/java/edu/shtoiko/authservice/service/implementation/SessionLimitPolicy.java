@@ -0,0 +1,82 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import edu.shtoiko.authservice.model.Role;
+import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.repository.UserSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class SessionLimitPolicy {
+
+    public static final int UNLIMITED = 0;
+
+    private final UserSessionRepository sessionRepository;
+
+    private final int defaultLimit;
+
+    private final Map<String, Integer> roleLimits;
+
+    private final Counter evictions;
+
+    public SessionLimitPolicy(UserSessionRepository sessionRepository, MeterRegistry meterRegistry,
+        @Value("${auth.session.max_per_user:50}") int defaultLimit,
+        @Value("${auth.session.max_per_user_overrides:}") String[] overrides) {
+        this.sessionRepository = sessionRepository;
+        this.defaultLimit = defaultLimit;
+        this.roleLimits = parseOverrides(overrides);
+        this.evictions = Counter.builder("auth.session.evicted")
+            .description("Sessions evicted at login because the user reached the session limit")
+            .register(meterRegistry);
+        log.info("Session limit per user is {} with role overrides {}", defaultLimit, roleLimits);
+    }
+
+    public int limitFor(SecuredUser user) {
+        if (roleLimits.isEmpty() || user.getRoles() == null) {
+            return defaultLimit;
+        }
+        int limit = -1;
+        for (Role role : user.getRoles()) {
+            Integer roleLimit = roleLimits.get(role.getName());
+            if (roleLimit == null) {
+                continue;
+            }
+            if (roleLimit == UNLIMITED) {
+                return UNLIMITED;
+            }
+            limit = Math.max(limit, roleLimit);
+        }
+        return limit < 0 ? defaultLimit : limit;
+    }
+
+    public int evictBeyond(long userId, int keep) {
+        int evicted = sessionRepository.deleteOldestBeyond(userId, keep);
+        if (evicted > 0) {
+            evictions.increment(evicted);
+        }
+        return evicted;
+    }
+
+    private static Map<String, Integer> parseOverrides(String[] overrides) {
+        Map<String, Integer> limits = new HashMap<>();
+        for (String override : overrides) {
+            if (override.isBlank()) {
+                continue;
+            }
+            int separator = override.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid session limit override: " + override);
+            }
+            limits.put(override.substring(0, separator).trim(),
+                Integer.parseInt(override.substring(separator + 1).trim()));
+        }
+        return Map.copyOf(limits);
+    }
+}
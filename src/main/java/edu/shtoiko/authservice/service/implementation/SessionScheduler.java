@@ -1,17 +1,90 @@
 package edu.shtoiko.authservice.service.implementation;
 
 import edu.shtoiko.authservice.service.UserSessionService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Component
-@RequiredArgsConstructor
 public class SessionScheduler {
     private final UserSessionService sessionService;
 
-    @Scheduled(cron = "0 0 * * * *")
+    private final int batchSize;
+
+    private final int rowsPerRun;
+
+    private final Counter purgedRows;
+
+    private final Timer batchLatency;
+
+    private final Timer runLatency;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    private final AtomicLong activeSessions = new AtomicLong();
+
+    public SessionScheduler(UserSessionService sessionService, MeterRegistry meterRegistry,
+        @Value("${auth.session.purge.batch_size:1000}") int batchSize,
+        @Value("${auth.session.purge.max_rows_per_second:5000}") int maxRowsPerSecond,
+        @Value("${auth.session.purge.interval_ms:1000}") long intervalMs) {
+        this.sessionService = sessionService;
+        this.batchSize = batchSize;
+        this.rowsPerRun = (int) Math.max(1, maxRowsPerSecond * intervalMs / 1000);
+        this.purgedRows = Counter.builder("auth.session.purge.rows")
+            .description("Expired sessions deleted by the purge job")
+            .register(meterRegistry);
+        this.batchLatency = Timer.builder("auth.session.purge.batch")
+            .description("Duration of a single expired-session delete batch")
+            .register(meterRegistry);
+        this.runLatency = Timer.builder("auth.session.purge.run")
+            .description("Duration of a whole purge run")
+            .register(meterRegistry);
+        Gauge.builder("auth.session.active", activeSessions, AtomicLong::get)
+            .description("Sessions that have not expired yet, as of the last count")
+            .register(meterRegistry);
+        Gauge.builder("auth.session.purge.backlog", backlog, AtomicLong::get)
+            .description("Expired sessions left after the last purge run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.session.purge.interval_ms:1000}")
     public void removeExpiredSessions() {
-        sessionService.deleteExpiredSessions();
+        long start = System.nanoTime();
+        try {
+            purge();
+        } finally {
+            runLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.session.active_count.interval_ms:60000}")
+    public void countActiveSessions() {
+        activeSessions.set(sessionService.countActiveSessions(Instant.now()));
+    }
+
+    private void purge() {
+        Instant now = Instant.now();
+        int purged = 0;
+        while (purged < rowsPerRun) {
+            int limit = Math.min(batchSize, rowsPerRun - purged);
+            long start = System.nanoTime();
+            int deleted = sessionService.deleteExpiredSessions(now, limit);
+            batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            purgedRows.increment(deleted);
+            purged += deleted;
+            if (deleted < limit) {
+                backlog.set(0);
+                return;
+            }
+        }
+        backlog.set(sessionService.countExpiredSessions(now));
     }
 }
@@ -0,0 +1,256 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jwt.signing.algorithm", havingValue = "ES256")
+public class SigningKeyRing {
+
+    private static final String ALGORITHM = "ES256";
+
+    private static final String SELECT_KEYS = "SELECT kid, wrapped_private_key, public_key, activates_at, "
+        + "expires_at FROM signing_keys WHERE algorithm = ? AND expires_at > ?";
+
+    private static final String INSERT_KEY = "INSERT INTO signing_keys (kid, algorithm, wrapped_private_key, "
+        + "public_key, activates_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String LOCK_ROTATION = "SELECT pg_advisory_xact_lock(?)";
+
+    private static final long ROTATION_LOCK_ID = 0x5349474E4B455953L;
+
+    private static final String KEY_WRAP_TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final int KEY_WRAP_IV_LENGTH = 12;
+
+    private static final int KEY_WRAP_TAG_BITS = 128;
+
+    private static final String DELETE_EXPIRED = "DELETE FROM signing_keys WHERE expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final SecretKey keyEncryptionKey;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Duration rotationPeriod;
+
+    private final Duration publishAhead;
+
+    private final Duration keyLifetime;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), new Jwks("{\"keys\":[]}", "\"0\""));
+
+    public SigningKeyRing(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper, @Value("${jwt.signing.kek}") String keyEncryptionKey,
+        @Value("${jwt.signing.rotation_period:P7D}") Duration rotationPeriod,
+        @Value("${jwt.signing.publish_ahead:PT15M}") Duration publishAhead,
+        @Value("${jwt.rest.expiration_time.refresh}") long refreshTokenExpirationTime) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        byte[] kek = Base64.getDecoder().decode(keyEncryptionKey);
+        if (kek.length != 32) {
+            throw new IllegalArgumentException("jwt.signing.kek must be a base64-encoded 256-bit AES key");
+        }
+        this.keyEncryptionKey = new SecretKeySpec(kek, "AES");
+        this.rotationPeriod = rotationPeriod;
+        this.publishAhead = publishAhead;
+        this.keyLifetime = rotationPeriod.plus(publishAhead).plusMillis(refreshTokenExpirationTime);
+    }
+
+    @PostConstruct
+    public void init() {
+        rotate();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh_interval_ms:60000}")
+    public void rotate() {
+        publish(transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject(LOCK_ROTATION, Object.class, ROTATION_LOCK_ID);
+            Instant now = Instant.now();
+            jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(now));
+            List<SigningKey> keys = load(now);
+            SigningKey newest = keys.isEmpty() ? null : keys.get(0);
+            if (newest == null) {
+                insert(now);
+                return load(now);
+            }
+            if (!newest.activatesAt().isAfter(now)
+                && !newest.activatesAt().plus(rotationPeriod).minus(publishAhead).isAfter(now)) {
+                insert(now.plus(publishAhead));
+                return load(now);
+            }
+            return keys;
+        }));
+    }
+
+    public SigningKey active() {
+        Instant now = Instant.now();
+        for (SigningKey key : snapshot.keys()) {
+            if (!key.activatesAt().isAfter(now)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("No active signing key");
+    }
+
+    public PublicKey verificationKey(String kid) {
+        return snapshot.byKid().get(kid);
+    }
+
+    public Jwks jwks() {
+        return snapshot.jwks();
+    }
+
+    private void insert(Instant activatesAt) {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        String kid = UUID.randomUUID().toString();
+        jdbcTemplate.update(INSERT_KEY, kid, ALGORITHM, wrap(kid, keyPair.getPrivate().getEncoded()),
+            keyPair.getPublic().getEncoded(), Timestamp.from(activatesAt),
+            Timestamp.from(activatesAt.plus(keyLifetime)));
+        log.info("Signing key {} created, active from {}", kid, activatesAt);
+    }
+
+    private List<SigningKey> load(Instant now) {
+        List<SigningKey> keys = new ArrayList<>(jdbcTemplate.query(SELECT_KEYS, this::mapKey, ALGORITHM,
+            Timestamp.from(now)));
+        keys.sort(Comparator.comparing(SigningKey::activatesAt).reversed());
+        return keys;
+    }
+
+    private void publish(List<SigningKey> keys) {
+        Map<String, PublicKey> byKid = new HashMap<>();
+        List<Map<String, String>> jwks = new ArrayList<>(keys.size());
+        for (SigningKey key : keys) {
+            byKid.put(key.kid(), key.publicKey());
+            jwks.add(toJwk(key));
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Map.of("keys", jwks));
+            String etag = "\"" + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(MessageDigest.getInstance("SHA-256").digest(json)) + "\"";
+            snapshot = new Snapshot(List.copyOf(keys), byKid, new Jwks(new String(json), etag));
+        } catch (JsonProcessingException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot publish signing keys", e);
+        }
+    }
+
+    private static Map<String, String> toJwk(SigningKey key) {
+        ECPublicKey publicKey = (ECPublicKey) key.publicKey();
+        Map<String, String> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("use", "sig");
+        jwk.put("alg", ALGORITHM);
+        jwk.put("kid", key.kid());
+        jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] padded = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, padded, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+
+    private byte[] wrap(String kid, byte[] privateKey) {
+        try {
+            byte[] iv = new byte[KEY_WRAP_IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(KEY_WRAP_TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(KEY_WRAP_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(privateKey);
+            byte[] wrapped = new byte[iv.length + ciphertext.length];
+            System.arraycopy(iv, 0, wrapped, 0, iv.length);
+            System.arraycopy(ciphertext, 0, wrapped, iv.length, ciphertext.length);
+            return wrapped;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot wrap signing key " + kid, e);
+        }
+    }
+
+    private byte[] unwrap(String kid, byte[] wrapped) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(KEY_WRAP_TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey,
+            new GCMParameterSpec(KEY_WRAP_TAG_BITS, wrapped, 0, KEY_WRAP_IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(wrapped, KEY_WRAP_IV_LENGTH, wrapped.length - KEY_WRAP_IV_LENGTH);
+    }
+
+    private SigningKey mapKey(ResultSet rs, int rowNum) throws SQLException {
+        String kid = rs.getString("kid");
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            return new SigningKey(kid,
+                keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(unwrap(kid, rs.getBytes("wrapped_private_key")))),
+                keyFactory.generatePublic(new X509EncodedKeySpec(rs.getBytes("public_key"))),
+                rs.getTimestamp("activates_at").toInstant(),
+                rs.getTimestamp("expires_at").toInstant());
+        } catch (GeneralSecurityException e) {
+            throw new SQLException("Cannot decode signing key " + kid, e);
+        }
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey, Instant activatesAt,
+        Instant expiresAt) {
+    }
+
+    public record Jwks(String json, String etag) {
+    }
+
+    private record Snapshot(List<SigningKey> keys, Map<String, PublicKey> byKid, Jwks jwks) {
+    }
+}
@@ -0,0 +1,288 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import edu.shtoiko.authservice.exception.ResponseException;
+import edu.shtoiko.authservice.model.Role;
+import edu.shtoiko.authservice.model.dto.BulkRowResult;
+import edu.shtoiko.authservice.model.dto.BulkRowResult.Status;
+import edu.shtoiko.authservice.model.dto.UserDto;
+import edu.shtoiko.authservice.model.dto.UserRolesRequest;
+import edu.shtoiko.authservice.service.PasswordHashingService;
+import edu.shtoiko.authservice.service.RoleService;
+import edu.shtoiko.authservice.service.UserBulkService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class UserBulkServiceImpl implements UserBulkService {
+
+    private static final String SELECT_EXISTING_EMAILS = "SELECT email FROM users WHERE email = ANY (?)";
+
+    private static final String SELECT_EXISTING_IDS = "SELECT id FROM users WHERE id = ANY (?)";
+
+    private static final String ALLOCATE_USER_IDS = "SELECT nextval('users_id_seq') FROM generate_series(1, ?)";
+
+    private static final String ADVANCE_USER_IDS = "SELECT setval('users_id_seq', "
+        + "GREATEST(?, (SELECT last_value FROM users_id_seq)))";
+
+    private static final String INSERT_USER = "INSERT INTO users (id, email, password) VALUES (?, ?, ?) "
+        + "ON CONFLICT (email) DO NOTHING";
+
+    private static final String INSERT_USER_ROLE = "INSERT INTO users_roles (user_id, role_id) VALUES (?, ?) "
+        + "ON CONFLICT DO NOTHING";
+
+    private static final String DELETE_USER_ROLES = "DELETE FROM users_roles WHERE user_id = ANY (?)";
+
+    private static final Role DEFAULT_ROLE = new Role(1L, "ROLE_USER");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final PasswordHashingService passwordHashingService;
+
+    private final RoleService roleService;
+
+    private final SecurityVersionRegistry securityVersions;
+
+    private final int maxSize;
+
+    private final int batchSize;
+
+    public UserBulkServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+        PasswordHashingService passwordHashingService, RoleService roleService,
+        SecurityVersionRegistry securityVersions,
+        @Value("${auth.user.bulk.max_size:10000}") int maxSize,
+        @Value("${auth.user.bulk.batch_size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordHashingService = passwordHashingService;
+        this.roleService = roleService;
+        this.securityVersions = securityVersions;
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<BulkRowResult> registerUsers(List<UserDto> users) {
+        checkSize(users.size());
+        BulkRowResult[] results = new BulkRowResult[users.size()];
+        Set<String> emails = new HashSet<>();
+        Set<Long> ids = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int row = 0; row < users.size(); row++) {
+            UserDto user = users.get(row);
+            if (user == null || isBlank(user.getEmail()) || isBlank(user.getPassword())) {
+                results[row] = new BulkRowResult(row, null, user == null ? null : user.getEmail(), Status.INVALID,
+                    "Email and password are required");
+            } else if (!emails.add(user.getEmail())) {
+                results[row] = new BulkRowResult(row, user.getId(), user.getEmail(), Status.CONFLICT,
+                    "Duplicate email in request");
+            } else if (user.getId() != null && !ids.add(user.getId())) {
+                results[row] = new BulkRowResult(row, user.getId(), user.getEmail(), Status.CONFLICT,
+                    "Duplicate user id in request");
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return List.of(results);
+        }
+        Set<String> existing = new HashSet<>(jdbcTemplate.query(SELECT_EXISTING_EMAILS,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", emails.toArray())),
+            (rs, rowNum) -> rs.getString(1)));
+        Set<Long> existingIds = ids.isEmpty() ? Set.of()
+            : new HashSet<>(jdbcTemplate.query(SELECT_EXISTING_IDS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (rs, rowNum) -> rs.getLong(1)));
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (int row : candidates) {
+            UserDto user = users.get(row);
+            if (existing.contains(user.getEmail())) {
+                results[row] = new BulkRowResult(row, user.getId(), user.getEmail(), Status.CONFLICT,
+                    "User with email " + user.getEmail() + " already exist");
+            } else if (existingIds.contains(user.getId())) {
+                results[row] = new BulkRowResult(row, user.getId(), user.getEmail(), Status.CONFLICT,
+                    "User with id " + user.getId() + " already exist");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<String> encoded = passwordHashingService.encodeAll(accepted.stream()
+                .map(row -> users.get(row).getPassword())
+                .toList());
+            List<Long> generatedIds = allocateUserIds((int) accepted.stream()
+                .filter(row -> users.get(row).getId() == null)
+                .count());
+            List<NewUser> newUsers = new ArrayList<>(accepted.size());
+            int nextGenerated = 0;
+            for (int i = 0; i < accepted.size(); i++) {
+                UserDto user = users.get(accepted.get(i));
+                Long id = user.getId() != null ? user.getId() : generatedIds.get(nextGenerated++);
+                newUsers.add(new NewUser(accepted.get(i), id, user.getEmail(), encoded.get(i)));
+            }
+            for (int from = 0; from < newUsers.size(); from += batchSize) {
+                insertUsers(newUsers.subList(from, Math.min(from + batchSize, newUsers.size())), results);
+            }
+        }
+        return List.of(results);
+    }
+
+    @Override
+    public List<BulkRowResult> changeRoles(List<UserRolesRequest> requests) {
+        checkSize(requests.size());
+        BulkRowResult[] results = new BulkRowResult[requests.size()];
+        Map<Long, UserRoles> candidates = new LinkedHashMap<>();
+        for (int row = 0; row < requests.size(); row++) {
+            UserRolesRequest request = requests.get(row);
+            if (request == null || request.getUserId() == null) {
+                results[row] = new BulkRowResult(row, null, null, Status.INVALID, "User id is required");
+                continue;
+            }
+            List<Role> roles = request.getRoles() == null ? List.of() : roleService.getRolesByNames(request.getRoles());
+            if (roles.isEmpty()) {
+                results[row] = new BulkRowResult(row, request.getUserId(), null, Status.INVALID, "Roles not found");
+            } else if (candidates.containsKey(request.getUserId())) {
+                results[row] = new BulkRowResult(row, request.getUserId(), null, Status.INVALID,
+                    "Duplicate user id in request");
+            } else {
+                candidates.put(request.getUserId(), new UserRoles(row, request.getUserId(), roles));
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return List.of(results);
+        }
+        Set<Long> existing = new HashSet<>(jdbcTemplate.query(SELECT_EXISTING_IDS,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", candidates.keySet().toArray())),
+            (rs, rowNum) -> rs.getLong(1)));
+        List<UserRoles> accepted = new ArrayList<>(candidates.size());
+        for (UserRoles userRoles : candidates.values()) {
+            if (existing.contains(userRoles.userId())) {
+                accepted.add(userRoles);
+            } else {
+                results[userRoles.row()] = new BulkRowResult(userRoles.row(), userRoles.userId(), null,
+                    Status.NOT_FOUND, "User not found");
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            for (int from = 0; from < accepted.size(); from += batchSize) {
+                replaceRoles(accepted.subList(from, Math.min(from + batchSize, accepted.size())), results);
+            }
+            List<Long> updated = accepted.stream()
+                .filter(userRoles -> results[userRoles.row()].status() == Status.UPDATED)
+                .map(UserRoles::userId)
+                .toList();
+            securityVersions.bumpAll(updated);
+        }
+        return List.of(results);
+    }
+
+    private void insertUsers(List<NewUser> chunk, BulkRowResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] counts = jdbcTemplate.batchUpdate(INSERT_USER, chunk, chunk.size(), (ps, user) -> {
+                    ps.setLong(1, user.id());
+                    ps.setString(2, user.email());
+                    ps.setString(3, user.password());
+                })[0];
+                List<NewUser> created = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    NewUser user = chunk.get(i);
+                    if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                        created.add(user);
+                        results[user.row()] = new BulkRowResult(user.row(), user.id(), user.email(), Status.CREATED,
+                            null);
+                    } else {
+                        results[user.row()] = new BulkRowResult(user.row(), user.id(), user.email(),
+                            Status.CONFLICT, "User with email " + user.email() + " already exist");
+                    }
+                }
+                if (!created.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_USER_ROLE, created, created.size(), (ps, user) -> {
+                        ps.setLong(1, user.id());
+                        ps.setLong(2, DEFAULT_ROLE.getId());
+                    });
+                    long maxId = created.stream().mapToLong(NewUser::id).max().getAsLong();
+                    jdbcTemplate.queryForObject(ADVANCE_USER_IDS, Long.class, maxId);
+                }
+            });
+        } catch (DataAccessException e) {
+            log.error("Bulk registration of {} users failed", chunk.size(), e);
+            for (NewUser user : chunk) {
+                results[user.row()] = new BulkRowResult(user.row(), user.id(), user.email(), Status.FAILED,
+                    "Batch insert failed");
+            }
+        }
+    }
+
+    private void replaceRoles(List<UserRoles> chunk, BulkRowResult[] results) {
+        List<long[]> pairs = new ArrayList<>();
+        for (UserRoles userRoles : chunk) {
+            for (Role role : userRoles.roles()) {
+                pairs.add(new long[] {userRoles.userId(), role.getId()});
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(DELETE_USER_ROLES, ps -> ps.setArray(1, ps.getConnection()
+                    .createArrayOf("bigint", chunk.stream().map(UserRoles::userId).toArray())));
+                jdbcTemplate.batchUpdate(INSERT_USER_ROLE, pairs, batchSize, (ps, pair) -> {
+                    ps.setLong(1, pair[0]);
+                    ps.setLong(2, pair[1]);
+                });
+            });
+            for (UserRoles userRoles : chunk) {
+                results[userRoles.row()] = new BulkRowResult(userRoles.row(), userRoles.userId(), null,
+                    Status.UPDATED, null);
+            }
+        } catch (DataAccessException e) {
+            log.error("Bulk role assignment of {} users failed", chunk.size(), e);
+            for (UserRoles userRoles : chunk) {
+                results[userRoles.row()] = new BulkRowResult(userRoles.row(), userRoles.userId(), null,
+                    Status.FAILED, "Batch update failed");
+            }
+        }
+    }
+
+    private List<Long> allocateUserIds(int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(ALLOCATE_USER_IDS, Long.class, count);
+    }
+
+    private void checkSize(int size) {
+        if (size > maxSize) {
+            throw new ResponseException(HttpStatus.BAD_REQUEST, "Batch size exceeds " + maxSize);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record NewUser(int row, long id, String email, String password) {
+    }
+
+    private record UserRoles(int row, long userId, List<Role> roles) {
+    }
+}
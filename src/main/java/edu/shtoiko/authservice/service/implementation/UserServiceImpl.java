@@ -1,45 +1,61 @@
 package edu.shtoiko.authservice.service.implementation;
 
 import edu.shtoiko.authservice.exception.ResponseException;
+import edu.shtoiko.authservice.metrics.AuthMetrics;
+import edu.shtoiko.authservice.mapper.UserMapper;
 import edu.shtoiko.authservice.model.Role;
 import edu.shtoiko.authservice.model.UserSession;
 import edu.shtoiko.authservice.model.dto.ChangePasswordRequest;
 import edu.shtoiko.authservice.model.dto.JwtResponse;
 import edu.shtoiko.authservice.model.SecuredUser;
 import edu.shtoiko.authservice.model.dto.SecuredUserDto;
+import edu.shtoiko.authservice.model.dto.SessionPage;
+import edu.shtoiko.authservice.model.dto.UserBatchRequest;
 import edu.shtoiko.authservice.model.dto.UserDto;
+import edu.shtoiko.authservice.model.dto.UserLookupResult;
+import edu.shtoiko.authservice.model.projection.UserRoleRow;
 import edu.shtoiko.authservice.repository.UserRepository;
+import edu.shtoiko.authservice.service.PasswordHashingService;
 import edu.shtoiko.authservice.service.RoleService;
 import edu.shtoiko.authservice.service.UserService;
 import edu.shtoiko.authservice.service.UserSessionService;
 import edu.shtoiko.authservice.utils.JwtTokenUtils;
+import edu.shtoiko.authservice.utils.TokenPair;
+import edu.shtoiko.authservice.utils.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.naming.AuthenticationException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
 @Slf4j
-public class UserServiceImpl implements UserService, UserDetailsService {
+public class UserServiceImpl implements UserService {
 
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHashingService passwordHashingService;
 
     private final JwtTokenUtils tokenUtils;
 
@@ -47,29 +63,50 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final UserSessionService userSessionService;
 
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
 
     private final RoleService roleService;
 
+    private final RevocationList revocationList;
+
+    private final SecurityVersionRegistry securityVersions;
+
+    private final AuthMetrics authMetrics;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${auth.user.batch.max_size:500}")
+    private int batchMaxSize;
+
+    @Value("${auth.user.batch.page_size:100}")
+    private int batchPageSize;
+
     // todo rewrite. UsersSession
     @Override
     public JwtResponse loginUser(String email, String password) {
+        long start = System.nanoTime();
+        try {
+            return login(email, password);
+        } finally {
+            authMetrics.recordLogin(start);
+        }
+    }
+
+    private JwtResponse login(String email, String password) {
         SecuredUser user = getSecuredUserByEmail(email);
-        if (passwordEncoder.matches(password, user.getPassword())) {
-            JwtResponse response = tokenUtils.createNewTokenPair(user);
-            userSessionService.saveSession(user, response.refreshToken());
-            return response;
+        if (passwordHashingService.matches(password, user.getPassword())) {
+            rehashIfOutdated(user, password);
+            securityVersions.reload(user.getId());
+            TokenPair tokenPair = tokenUtils.createNewTokenPair(user);
+            userSessionService.saveSession(user, tokenPair.response().refreshToken(),
+                tokenPair.refreshTokenExpiresAt());
+            return tokenPair.response();
         } else {
             log.warn("user's email : {} passwords mismatches", email);
             throw new ResponseException(HttpStatus.FORBIDDEN, "Invalid credentials");
         }
     }
 
-    @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return getSecuredUserByEmail(username);
-    }
-
     // todo: session control
     @Override
     public boolean registerUser(UserDto userDto) {
@@ -78,7 +115,8 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             throw new ResponseException(HttpStatus.CONFLICT,
                 "User with email " + userDto.getEmail() + " already exist");
         }
-        SecuredUser newUser = modelMapper.map(userDto, SecuredUser.class);
+        SecuredUser newUser = userMapper.toSecuredUser(userDto);
+        newUser.setPassword(passwordHashingService.encode(userDto.getPassword()));
         newUser.setRoles(List.of(new Role(1L, "ROLE_USER")));
         newUser.setSessions(List.of());
         userRepository.save(newUser);
@@ -88,16 +126,53 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     @Override
     @Transactional
     public String logout(String refreshToken) {
+        VerifiedToken verifiedToken = null;
+        try {
+            verifiedToken = tokenUtils.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Access tokens of an expired or unreadable session are not revoked", e);
+        }
         userSessionService.deleteByRefreshToken(refreshToken);
+        if (verifiedToken != null) {
+            revocationList.revokeSession(verifiedToken.getSessionId());
+        }
         return "Logout successful";
     }
 
+    @Override
+    public SessionPage getActiveSessions(Long userId, String cursor, int limit) {
+        return userSessionService.findActiveSessions(userId, cursor, limit);
+    }
+
+    @Override
+    @Transactional
+    public String revokeAllSessions(Long userId) {
+        int revoked = userSessionService.deleteAllByUserId(userId);
+        securityVersions.bump(userId);
+        log.info("Revoked {} sessions of user {}", revoked, userId);
+        return "Sessions revoked: " + revoked;
+    }
+
     // todo should compare session info, exception handling
     @Override
     public JwtResponse refreshToken(String refreshToken) {
-        JwtResponse newTokenPair = tokenUtils.refreshToken(refreshToken);
-        if (userSessionService.updateRefreshToken(refreshToken, newTokenPair.refreshToken())) {
-            return newTokenPair;
+        long start = System.nanoTime();
+        try {
+            return refresh(refreshToken);
+        } finally {
+            authMetrics.recordRefresh(start);
+        }
+    }
+
+    private JwtResponse refresh(String refreshToken) {
+        VerifiedToken verifiedToken = tokenUtils.verify(refreshToken);
+        if (verifiedToken.getUserId() != null) {
+            securityVersions.reload(verifiedToken.getUserId());
+        }
+        TokenPair newTokenPair = tokenUtils.refreshToken(verifiedToken);
+        if (userSessionService.updateRefreshToken(refreshToken, newTokenPair.response().refreshToken(),
+            newTokenPair.refreshTokenExpiresAt())) {
+            return newTokenPair.response();
         } else {
             throw new RuntimeException();
         }
@@ -105,17 +180,23 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     // todo refactor
     @Override
-    @Transactional
     public String changePassword(ChangePasswordRequest passwordRequest) {
-        SecuredUser user = userRepository.findById(Long.parseLong(passwordRequest.getUserId()))
-            .orElseThrow(EntityNotFoundException::new);
-        if (passwordEncoder.matches(passwordRequest.getPassword(), user.getPassword())) {
-            user.setPassword(passwordEncoder.encode(passwordRequest.getNewPassword()));
-            userRepository.save(user);
-            return "password changed successfully";
-        } else {
+        Long userId = Long.parseLong(passwordRequest.getUserId());
+        SecuredUser user = userRepository.findById(userId).orElseThrow(EntityNotFoundException::new);
+        if (!passwordHashingService.matches(passwordRequest.getPassword(), user.getPassword())) {
             throw new ResponseException(HttpStatus.FORBIDDEN, "Invalid credentials");
         }
+        String currentPassword = user.getPassword();
+        String newPassword = passwordHashingService.encode(passwordRequest.getNewPassword());
+        transactionTemplate.executeWithoutResult(status -> {
+            SecuredUser managed = userRepository.findById(userId).orElseThrow(EntityNotFoundException::new);
+            if (!currentPassword.equals(managed.getPassword())) {
+                throw new ResponseException(HttpStatus.CONFLICT, "Password was changed concurrently");
+            }
+            managed.setPassword(newPassword);
+            securityVersions.bump(userId);
+        });
+        return "password changed successfully";
     }
 
     @Override
@@ -127,26 +208,83 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         SecuredUser user = userRepository.findById(userId)
             .orElseThrow(() -> new ResponseException(HttpStatus.BAD_REQUEST, "User not found"));
         user.setRoles(roles);
-        return modelMapper.map(userRepository.save(user), SecuredUserDto.class);
+        SecuredUserDto userDto = userMapper.toSecuredUserDto(userRepository.save(user));
+        securityVersions.bump(userId);
+        return userDto;
     }
 
     @Override
     public SecuredUserDto getSecuredUserDtoById(Long userId) {
-        return modelMapper.map(getSecuredUserById(userId), SecuredUserDto.class);
+        return toSecuredUserDto(userRepository.findUserRolesById(userId));
     }
 
     @Override
     public SecuredUserDto getSecuredUserDtoByEmail(String email) {
-        SecuredUser user = getSecuredUserByEmail(email);
-        if (user == null) {
+        return toSecuredUserDto(userRepository.findUserRolesByEmail(email));
+    }
+
+    @Override
+    public Stream<UserLookupResult> getSecuredUserDtos(UserBatchRequest batchRequest) {
+        List<Long> ids = batchRequest.getIds() == null ? List.of() : batchRequest.getIds();
+        List<String> emails = batchRequest.getEmails() == null ? List.of() : batchRequest.getEmails();
+        if (ids.size() + emails.size() > batchMaxSize) {
+            throw new ResponseException(HttpStatus.BAD_REQUEST, "Batch size exceeds " + batchMaxSize);
+        }
+        return Stream.concat(
+            pages(ids).flatMap(page -> lookup(page, userRepository::findUserRolesByIdIn, SecuredUserDto::getId)),
+            pages(emails)
+                .flatMap(page -> lookup(page, userRepository::findUserRolesByEmailIn, SecuredUserDto::getEmail)));
+    }
+
+    private <K> Stream<List<K>> pages(List<K> keys) {
+        return IntStream.range(0, (keys.size() + batchPageSize - 1) / batchPageSize)
+            .mapToObj(page -> keys.subList(page * batchPageSize, Math.min(keys.size(), (page + 1) * batchPageSize)));
+    }
+
+    private <K> Stream<UserLookupResult> lookup(List<K> keys, Function<Set<K>, List<UserRoleRow>> query,
+        Function<SecuredUserDto, K> keyOf) {
+        Set<K> distinctKeys = keys.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<K, SecuredUserDto> users = new HashMap<>();
+        if (!distinctKeys.isEmpty()) {
+            toSecuredUserDtos(query.apply(distinctKeys)).forEach(userDto -> users.put(keyOf.apply(userDto), userDto));
+        }
+        return keys.stream().map(key -> {
+            SecuredUserDto userDto = users.get(key);
+            return userDto == null ? UserLookupResult.notFound(String.valueOf(key))
+                : UserLookupResult.found(String.valueOf(key), userDto);
+        });
+    }
+
+    private SecuredUserDto toSecuredUserDto(List<UserRoleRow> rows) {
+        if (rows.isEmpty()) {
             throw new ResponseException(HttpStatus.BAD_REQUEST, "User not found");
         }
-        return modelMapper.map(user, SecuredUserDto.class);
+        return toSecuredUserDtos(rows).get(0);
     }
 
-    private SecuredUser getSecuredUserById(Long id) {
-        return userRepository.findById(id)
-            .orElseThrow(() -> new ResponseException(HttpStatus.BAD_REQUEST, "User not found"));
+    private List<SecuredUserDto> toSecuredUserDtos(List<UserRoleRow> rows) {
+        Map<Long, List<UserRoleRow>> rowsByUser = rows.stream()
+            .collect(Collectors.groupingBy(UserRoleRow::id, LinkedHashMap::new, Collectors.toList()));
+        List<SecuredUserDto> users = new ArrayList<>(rowsByUser.size());
+        for (List<UserRoleRow> userRows : rowsByUser.values()) {
+            SecuredUserDto userDto = new SecuredUserDto();
+            userDto.setId(userRows.get(0).id());
+            userDto.setEmail(userRows.get(0).email());
+            userDto.setRoles(roleService.getRolesByNames(userRows.stream()
+                .map(UserRoleRow::roleName)
+                .filter(Objects::nonNull)
+                .toList()));
+            users.add(userDto);
+        }
+        return users;
+    }
+
+    private void rehashIfOutdated(SecuredUser user, String rawPassword) {
+        if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(rawPassword));
+            userRepository.save(user);
+            log.info("Password hash of user {} upgraded to the current policy", user.getId());
+        }
     }
 
     private SecuredUser getSecuredUserByEmail(String email) {
@@ -3,17 +3,24 @@ package edu.shtoiko.authservice.service.implementation;
 import edu.shtoiko.authservice.exception.ResponseException;
 import edu.shtoiko.authservice.model.SecuredUser;
 import edu.shtoiko.authservice.model.UserSession;
+import edu.shtoiko.authservice.model.dto.SessionPage;
+import edu.shtoiko.authservice.model.dto.UserSessionDto;
+import edu.shtoiko.authservice.repository.UserRepository;
 import edu.shtoiko.authservice.repository.UserSessionRepository;
 import edu.shtoiko.authservice.service.UserSessionService;
-import edu.shtoiko.authservice.utils.JwtTokenUtils;
+import edu.shtoiko.authservice.utils.SessionCursor;
+import edu.shtoiko.authservice.utils.TokenDigest;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @RequiredArgsConstructor
@@ -21,11 +28,19 @@ import java.util.Optional;
 public class UserSessionServiceImpl implements UserSessionService {
 
     private final UserSessionRepository sessionRepository;
-    private final JwtTokenUtils tokenUtils;
+
+    private final WriteBehindSessionStore writeBehindStore;
+
+    private final UserRepository userRepository;
+
+    private final SessionLimitPolicy sessionLimitPolicy;
+
+    @Value("${auth.session.page.max_size:100}")
+    private int maxPageSize;
 
     @Override
     public Optional<UserSession> findByRefreshToken(String token) {
-        return Optional.ofNullable(sessionRepository.findByRefreshToken(token));
+        return Optional.ofNullable(sessionRepository.findByRefreshTokenHash(TokenDigest.sha256(token)));
     }
 
     @Override
@@ -34,24 +49,38 @@ public class UserSessionServiceImpl implements UserSessionService {
     }
 
     @Override
+    @Transactional
     public void deleteByRefreshToken(String refreshToken) {
-        if (!sessionRepository.existsByRefreshToken(refreshToken)) {
+        byte[] refreshTokenHash = TokenDigest.sha256(refreshToken);
+        if (writeBehindStore.remove(refreshTokenHash)) {
+            return;
+        }
+        if (sessionRepository.deleteByRefreshTokenHash(refreshTokenHash) == 0) {
             throw new ResponseException(HttpStatus.BAD_REQUEST, "Session not found");
         }
-        sessionRepository.deleteByRefreshToken(refreshToken);
     }
 
     @Override
-    public boolean updateRefreshToken(String currentRefreshToken, String newRefreshToken) {
-        UserSession session = findByRefreshToken(currentRefreshToken)
+    @Transactional
+    public boolean updateRefreshToken(String currentRefreshToken, String newRefreshToken, Instant newExpiresAt) {
+        byte[] currentHash = TokenDigest.sha256(currentRefreshToken);
+        byte[] newHash = TokenDigest.sha256(newRefreshToken);
+        Instant now = Instant.now();
+        if (writeBehindStore.rotate(currentHash, newHash, newExpiresAt, now)) {
+            return true;
+        }
+        long version = sessionRepository.findVersionByRefreshTokenHash(currentHash)
             .orElseThrow(() -> new ResponseException(HttpStatus.BAD_REQUEST, "Session not found"));
-        session.setRefreshToken(newRefreshToken);
-        session.setExpiresAt(tokenUtils.extractExpiration(newRefreshToken).toInstant());
-        return save(session).getRefreshToken().equals(newRefreshToken);
+        int updated = sessionRepository.rotateRefreshToken(currentHash, version, newHash, newExpiresAt, now);
+        if (updated == 0) {
+            throw new ResponseException(HttpStatus.CONFLICT, "Refresh token already used");
+        }
+        return true;
     }
 
     @Override
-    public UserSession saveSession(SecuredUser user, String token) {
+    @Transactional
+    public UserSession saveSession(SecuredUser user, String token, Instant expiresAt) {
         UserSession userSession = new UserSession();
         userSession.setUser(user);
         userSession.setUserAgent("someAgent");
@@ -59,14 +88,57 @@ public class UserSessionServiceImpl implements UserSessionService {
         userSession.setIpAddress("123");
         userSession.setStartTime(Instant.now());
         userSession.setLastActivity(Instant.now());
-        userSession.setExpiresAt(tokenUtils.extractExpiration(token).toInstant());
-        userSession.setRefreshToken(token);
+        userSession.setExpiresAt(expiresAt);
+        userSession.setRefreshTokenHash(TokenDigest.sha256(token));
+        int limit = sessionLimitPolicy.limitFor(user);
+        if (writeBehindStore.offer(userSession, limit)) {
+            return userSession;
+        }
+        if (limit != SessionLimitPolicy.UNLIMITED) {
+            userRepository.lockById(user.getId());
+            sessionLimitPolicy.evictBeyond(user.getId(), limit - 1);
+        }
         return save(userSession);
     }
 
     @Override
     @Transactional
-    public void deleteExpiredSessions() {
-        sessionRepository.deleteAllByExpiresAtBefore(Instant.now());
+    public int deleteExpiredSessions(Instant before, int limit) {
+        return sessionRepository.deleteExpiredBatch(before, limit);
+    }
+
+    @Override
+    public long countExpiredSessions(Instant before) {
+        return sessionRepository.countByExpiresAtBefore(before);
+    }
+
+    @Override
+    public long countActiveSessions(Instant at) {
+        return sessionRepository.countByExpiresAtAfter(at);
+    }
+
+    @Override
+    public SessionPage findActiveSessions(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        Instant now = Instant.now();
+        List<UserSessionDto> sessions;
+        if (cursor == null || cursor.isEmpty()) {
+            sessions = sessionRepository.findActiveByUserId(userId, now, Limit.of(pageSize + 1));
+        } else {
+            SessionCursor after = SessionCursor.decode(cursor);
+            sessions = sessionRepository.findActiveByUserIdAfter(userId, now, after.lastActivity(), after.id(),
+                Limit.of(pageSize + 1));
+        }
+        if (sessions.size() <= pageSize) {
+            return new SessionPage(sessions, null);
+        }
+        List<UserSessionDto> page = sessions.subList(0, pageSize);
+        return new SessionPage(page, SessionCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    @Override
+    @Transactional
+    public int deleteAllByUserId(Long userId) {
+        return writeBehindStore.removeByUserId(userId) + sessionRepository.deleteByUserId(userId);
     }
 }
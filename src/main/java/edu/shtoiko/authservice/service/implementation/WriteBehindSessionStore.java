@@ -0,0 +1,241 @@
+package edu.shtoiko.authservice.service.implementation;
+
+import edu.shtoiko.authservice.model.UserSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class WriteBehindSessionStore {
+
+    private static final String INSERT_SESSION = "INSERT INTO user_sessions (user_id, refresh_token_hash, ip_address, "
+        + "user_agent, device_type, start_time, last_activity, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final Semaphore capacity;
+
+    private final Map<ByteBuffer, PendingSession> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter rejected;
+
+    private final SessionLimitPolicy sessionLimitPolicy;
+
+    public WriteBehindSessionStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+        SessionLimitPolicy sessionLimitPolicy, MeterRegistry meterRegistry,
+        @Value("${auth.session.write_behind.enabled:false}") boolean enabled,
+        @Value("${auth.session.write_behind.capacity:10000}") int capacity,
+        @Value("${auth.session.write_behind.batch_size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sessionLimitPolicy = sessionLimitPolicy;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.capacity = new Semaphore(capacity);
+        Gauge.builder("auth.session.write_behind.pending", pending, Map::size)
+            .description("Sessions accepted at login and not yet written to the database")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("auth.session.write_behind.rejected")
+            .description("Sessions written synchronously because the write-behind queue was full")
+            .register(meterRegistry);
+    }
+
+    public boolean offer(UserSession session, int sessionLimit) {
+        if (!enabled) {
+            return false;
+        }
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            return false;
+        }
+        PendingSession pendingSession = PendingSession.of(session, sessionLimit);
+        pending.put(pendingSession.key(), pendingSession);
+        return true;
+    }
+
+    public boolean rotate(byte[] currentHash, byte[] newHash, Instant expiresAt, Instant lastActivity) {
+        ByteBuffer currentKey = ByteBuffer.wrap(currentHash);
+        if (!pending.containsKey(currentKey)) {
+            return false;
+        }
+        flushLock.lock();
+        try {
+            PendingSession session = pending.remove(currentKey);
+            if (session == null) {
+                return false;
+            }
+            PendingSession rotated = session.rotate(newHash, expiresAt, lastActivity);
+            pending.put(rotated.key(), rotated);
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public boolean remove(byte[] refreshTokenHash) {
+        ByteBuffer key = ByteBuffer.wrap(refreshTokenHash);
+        if (!pending.containsKey(key)) {
+            return false;
+        }
+        flushLock.lock();
+        try {
+            if (pending.remove(key) == null) {
+                return false;
+            }
+            capacity.release();
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int removeByUserId(long userId) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        flushLock.lock();
+        try {
+            int removed = 0;
+            for (PendingSession session : pending.values()) {
+                if (session.userId() == userId && pending.remove(session.key(), session)) {
+                    capacity.release();
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.session.write_behind.flush_interval_ms:200}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<PendingSession> sessions = new ArrayList<>(pending.values());
+            for (int from = 0; from < sessions.size(); from += batchSize) {
+                List<PendingSession> batch = sessions.subList(from, Math.min(from + batchSize, sessions.size()));
+                if (!writeBatch(batch)) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean writeBatch(List<PendingSession> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SESSION, batch, batch.size(), WriteBehindSessionStore::bind);
+                enforceLimits(batch);
+            });
+            batch.forEach(this::release);
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Write-behind batch of {} sessions failed, retrying row by row", batch.size(), e);
+        }
+        for (PendingSession session : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update(INSERT_SESSION, ps -> bind(ps, session));
+                    enforceLimits(List.of(session));
+                });
+                release(session);
+            } catch (DataIntegrityViolationException e) {
+                log.error("Dropping session of user {} that cannot be stored", session.userId(), e);
+                release(session);
+            } catch (DataAccessException e) {
+                log.error("Session store is unavailable, {} sessions stay pending", pending.size(), e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void enforceLimits(List<PendingSession> batch) {
+        Map<Long, Integer> limits = new HashMap<>();
+        for (PendingSession session : batch) {
+            if (session.sessionLimit() != SessionLimitPolicy.UNLIMITED) {
+                limits.merge(session.userId(), session.sessionLimit(), Math::max);
+            }
+        }
+        limits.forEach(sessionLimitPolicy::evictBeyond);
+    }
+
+    private void release(PendingSession session) {
+        if (pending.remove(session.key(), session)) {
+            capacity.release();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, PendingSession session) throws SQLException {
+        ps.setLong(1, session.userId());
+        ps.setBytes(2, session.refreshTokenHash());
+        ps.setString(3, session.ipAddress());
+        ps.setString(4, session.userAgent());
+        ps.setString(5, session.deviceType());
+        ps.setTimestamp(6, Timestamp.from(session.startTime()));
+        ps.setTimestamp(7, Timestamp.from(session.lastActivity()));
+        ps.setTimestamp(8, Timestamp.from(session.expiresAt()));
+    }
+
+    private record PendingSession(long userId, byte[] refreshTokenHash, String ipAddress, String userAgent,
+        String deviceType, Instant startTime, Instant lastActivity, Instant expiresAt, int sessionLimit) {
+
+        static PendingSession of(UserSession session, int sessionLimit) {
+            return new PendingSession(session.getUser().getId(), session.getRefreshTokenHash(),
+                session.getIpAddress(), session.getUserAgent(), session.getDeviceType(), session.getStartTime(),
+                session.getLastActivity(), session.getExpiresAt(), sessionLimit);
+        }
+
+        ByteBuffer key() {
+            return ByteBuffer.wrap(refreshTokenHash);
+        }
+
+        PendingSession rotate(byte[] newHash, Instant newExpiresAt, Instant newLastActivity) {
+            return new PendingSession(userId, newHash, ipAddress, userAgent, deviceType, startTime,
+                newLastActivity, newExpiresAt, sessionLimit);
+        }
+    }
+}
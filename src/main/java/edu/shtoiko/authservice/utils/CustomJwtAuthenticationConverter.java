@@ -1,6 +1,9 @@
 package edu.shtoiko.authservice.utils;
 
+import edu.shtoiko.authservice.metrics.AuthMetrics;
+import edu.shtoiko.authservice.metrics.TokenOutcome;
 import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,8 +15,11 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import java.util.Collection;
 import java.util.List;
 
+@RequiredArgsConstructor
 public class CustomJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
+    private final AuthMetrics authMetrics;
+
     private Converter<Jwt, Collection<GrantedAuthority>> jwtGrantedAuthoritiesConverter;
 
     @Override
@@ -23,10 +29,12 @@ public class CustomJwtAuthenticationConverter implements Converter<Jwt, Abstract
         String userId = jwt.getClaimAsString("user_id");
         String tokenType = jwt.getClaimAsString("type");
         if (tokenType.equals("access")) {
+            authMetrics.tokenOutcome(TokenOutcome.VALID);
             JwtAuthenticationToken jwtAuthenticationToken = new JwtAuthenticationToken(jwt, authorities);
             jwtAuthenticationToken.setDetails(userId);
             return jwtAuthenticationToken;
         } else {
+            authMetrics.tokenOutcome(TokenOutcome.WRONG_TYPE);
             OAuth2Error error = new OAuth2Error("invalid_token", "Token type != assess", null);
             throw new JwtValidationException("Invalid JWT token", List.of(error));
         }
@@ -1,6 +1,13 @@
 package edu.shtoiko.authservice.utils;
 
+import edu.shtoiko.authservice.metrics.AuthMetrics;
+import edu.shtoiko.authservice.metrics.TokenOutcome;
+import edu.shtoiko.authservice.service.implementation.RevocationList;
+import edu.shtoiko.authservice.service.implementation.SecurityVersionRegistry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecurityException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -17,21 +24,73 @@ public class CustomJwtDecoder implements JwtDecoder {
 
     private final JwtTokenUtils jwtTokenUtils;
 
+    private final JwtDecoderCache decoderCache;
+
+    private final RevocationList revocationList;
+
+    private final SecurityVersionRegistry securityVersions;
+
+    private final AuthMetrics authMetrics;
+
     @Override
     public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
         try {
-            Claims claims = jwtTokenUtils.extractClaims(token);
+            Jwt jwt = decoderCache.get(token, this::verify);
+            if (revocationList.isRevoked(jwt.getClaimAsString("sid"))) {
+                throw revoked(TokenOutcome.REVOKED);
+            }
+            if (!isSecurityVersionCurrent(jwt)) {
+                throw revoked(TokenOutcome.STALE_VERSION);
+            }
+            return jwt;
+        } finally {
+            authMetrics.recordDecode(start);
+        }
+    }
+
+    private JwtValidationException revoked(TokenOutcome outcome) {
+        authMetrics.tokenOutcome(outcome);
+        OAuth2Error error = new OAuth2Error("invalid_token", "JWT has been revoked", null);
+        return new JwtValidationException("Revoked JWT token", List.of(error));
+    }
+
+    private boolean isSecurityVersionCurrent(Jwt jwt) {
+        Object userId = jwt.getClaims().get("user_id");
+        if (!(userId instanceof Number id)) {
+            return true;
+        }
+        Object securityVersion = jwt.getClaims().get("sv");
+        return securityVersions.isCurrent(id.longValue(),
+            securityVersion instanceof Number version ? version.intValue() : 0);
+    }
+
+    private Jwt verify(String token) {
+        try {
+            VerifiedToken verifiedToken = jwtTokenUtils.verify(token);
+            Claims claims = verifiedToken.claims();
 
             return Jwt.withTokenValue(token)
-                .headers(headers -> headers.put("alg", "HS256"))
+                .headers(headers -> headers.putAll(verifiedToken.header()))
                 .claims(claimsMap -> claimsMap.putAll(claims))
                 .issuedAt(claims.getIssuedAt().toInstant())
                 .expiresAt(claims.getExpiration().toInstant())
                 .subject(claims.getSubject())
                 .build();
         } catch (Exception e) {
+            authMetrics.tokenOutcome(outcomeOf(e));
             OAuth2Error error = new OAuth2Error("invalid_token", "JWT validation failed", null);
             throw new JwtValidationException("Invalid JWT token", List.of(error));
         }
     }
+
+    private static TokenOutcome outcomeOf(Exception e) {
+        if (e instanceof ExpiredJwtException) {
+            return TokenOutcome.EXPIRED;
+        }
+        if (e instanceof SecurityException || e instanceof UnsupportedJwtException) {
+            return TokenOutcome.BAD_SIGNATURE;
+        }
+        return TokenOutcome.MALFORMED;
+    }
 }
@@ -1,26 +1,36 @@
 package edu.shtoiko.authservice.utils;
 
-import edu.shtoiko.authservice.model.Role;
+import edu.shtoiko.authservice.service.implementation.RoleRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 public class CustomJwtGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
 
+    private final RoleRegistry roleRegistry;
+
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
+        String roleBits = jwt.getClaimAsString("rb");
+        if (roleBits != null) {
+            Number roleVersion = jwt.getClaim("rv");
+            return new ArrayList<>(
+                roleRegistry.decodeRoleBits(roleBits, roleVersion != null ? roleVersion.longValue() : 0L));
+        }
         List<String> roles = jwt.getClaimAsStringList("roles");
         if (roles == null) {
             return List.of();
         }
-        return roles.stream()
-            .map(Role::new)
-            .collect(Collectors.toList());
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            authorities.add(roleRegistry.authority(role));
+        }
+        return authorities;
     }
 }
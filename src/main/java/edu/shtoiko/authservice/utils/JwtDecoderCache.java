@@ -0,0 +1,71 @@
+package edu.shtoiko.authservice.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+@Slf4j
+@Component
+public class JwtDecoderCache {
+
+    private final Cache<ByteBuffer, Jwt> cache;
+
+    public JwtDecoderCache(@Value("${jwt.decoder.cache.enabled:false}") boolean enabled,
+        @Value("${jwt.decoder.cache.max_size:100000}") long maxSize,
+        @Value("${jwt.decoder.cache.ttl:PT5M}") Duration ttl,
+        Clock clock, MeterRegistry meterRegistry) {
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new TokenExpiry(clock, ttl.toNanos()))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.decoder");
+        log.info("Verified JWT cache enabled, max size {}, ttl {}", maxSize, ttl);
+    }
+
+    public Jwt get(String token, Function<String, Jwt> decoder) {
+        if (cache == null) {
+            return decoder.apply(token);
+        }
+        return cache.get(ByteBuffer.wrap(TokenDigest.sha256(token)), key -> decoder.apply(token));
+    }
+
+    private record TokenExpiry(Clock clock, long ttlNanos) implements Expiry<ByteBuffer, Jwt> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return 0;
+            }
+            long untilExpiry = Duration.between(clock.instant(), expiresAt).toNanos();
+            return Math.max(0, Math.min(untilExpiry, ttlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
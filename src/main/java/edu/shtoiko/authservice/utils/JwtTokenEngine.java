@@ -0,0 +1,129 @@
+package edu.shtoiko.authservice.utils;
+
+import edu.shtoiko.authservice.metrics.TokenParseCounter;
+import edu.shtoiko.authservice.service.implementation.SigningKeyRing;
+import edu.shtoiko.authservice.service.implementation.SigningKeyRing.SigningKey;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.security.Key;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+
+public final class JwtTokenEngine {
+
+    private final Key signKey;
+
+    private final SignatureAlgorithm algorithm;
+
+    private final SigningKeyRing keyRing;
+
+    private final JwtParser parser;
+
+    private final Instant legacyKeyRetiresAt;
+
+    private final Clock clock;
+
+    private volatile Key legacyKey;
+
+    public JwtTokenEngine(String base64SecretKey) {
+        this.signKey = hmacKey(base64SecretKey);
+        this.algorithm = SignatureAlgorithm.HS256;
+        this.keyRing = null;
+        this.legacyKeyRetiresAt = null;
+        this.clock = null;
+        this.parser = Jwts.parserBuilder()
+            .setSigningKey(signKey)
+            .build();
+    }
+
+    /**
+     * Signs with the ES256 key ring. Tokens without a key id are still verified
+     * with the legacy HS256 secret until {@code legacyKeyRetiresAt}; after that
+     * instant, or when either argument is null, they are rejected.
+     */
+    public JwtTokenEngine(SigningKeyRing keyRing, String legacyBase64SecretKey, Instant legacyKeyRetiresAt,
+        Clock clock) {
+        this.signKey = null;
+        this.algorithm = SignatureAlgorithm.ES256;
+        this.keyRing = keyRing;
+        this.legacyKeyRetiresAt = legacyKeyRetiresAt;
+        this.clock = clock;
+        this.legacyKey = legacyBase64SecretKey == null || legacyBase64SecretKey.isEmpty() || legacyKeyRetiresAt == null
+            ? null
+            : hmacKey(legacyBase64SecretKey);
+        this.parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new KidResolver())
+            .build();
+    }
+
+    public Jws<Claims> parse(String token) {
+        TokenParseCounter.increment();
+        return parser.parseClaimsJws(token);
+    }
+
+    public String sign(Map<String, Object> claims, String subject, Date issuedAt, Date expiration) {
+        if (keyRing == null) {
+            return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(subject)
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiration)
+                .signWith(signKey, algorithm)
+                .compact();
+        }
+        SigningKey key = keyRing.active();
+        return Jwts.builder()
+            .setHeaderParam(JwsHeader.KEY_ID, key.kid())
+            .setClaims(claims)
+            .setSubject(subject)
+            .setIssuedAt(issuedAt)
+            .setExpiration(expiration)
+            .signWith(key.privateKey(), algorithm)
+            .compact();
+    }
+
+    private static Key hmacKey(String base64SecretKey) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64SecretKey));
+        SignatureAlgorithm.HS256.assertValidSigningKey(key);
+        return key;
+    }
+
+    private final class KidResolver extends SigningKeyResolverAdapter {
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                return legacyKey();
+            }
+            Key key = keyRing.verificationKey(kid);
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown key id " + kid);
+            }
+            return key;
+        }
+
+        private Key legacyKey() {
+            Key key = legacyKey;
+            if (key == null) {
+                throw new UnsupportedJwtException("Token has no key id");
+            }
+            if (!clock.instant().isBefore(legacyKeyRetiresAt)) {
+                legacyKey = null;
+                throw new UnsupportedJwtException("Legacy signing key retired at " + legacyKeyRetiresAt);
+            }
+            return key;
+        }
+    }
+}
@@ -1,31 +1,35 @@
 package edu.shtoiko.authservice.utils;
 
-import edu.shtoiko.authservice.model.Role;
+import edu.shtoiko.authservice.metrics.AuthMetrics;
 import edu.shtoiko.authservice.model.dto.JwtResponse;
+import edu.shtoiko.authservice.model.RoleAuthority;
 import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.service.implementation.RoleRegistry;
+import edu.shtoiko.authservice.service.implementation.SecurityVersionRegistry;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.Jws;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 public class JwtTokenUtils {
 
-    @Value("${jwt.rest.key}")
-    private String secretKey;
+    private final JwtTokenEngine tokenEngine;
+
+    private final RoleRegistry roleRegistry;
+
+    private final SecurityVersionRegistry securityVersions;
+
+    private final AuthMetrics authMetrics;
 
     @Value("${jwt.rest.expiration_time.access}")
     private Long accessTokenExpirationTime;
@@ -33,136 +37,129 @@ public class JwtTokenUtils {
     @Value("${jwt.rest.expiration_time.refresh}")
     private Long refreshTokenExpirationTime;
 
+    @Value("${jwt.claims.compact_roles:false}")
+    private boolean compactRoles;
+
     private final String tokenType = "Bearer";
 
-    public String extractUsername(String token) {
-        return extractClaims(token, Claims::getSubject);
+    public VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        try {
+            Jws<Claims> jws = tokenEngine.parse(token);
+            return new VerifiedToken(token, jws.getHeader(), jws.getBody());
+        } finally {
+            authMetrics.recordParse(start);
+        }
     }
 
-    public JwtResponse createNewTokenPair(SecuredUser user) {
-        JwtResponse response = new JwtResponse(generateAccessToken(user), generateRefreshToken(user), tokenType);
-        return response;
+    public TokenPair createNewTokenPair(SecuredUser user) {
+        return createNewTokenPair(user, newId());
     }
 
-    public String generateAccessToken(SecuredUser userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "access");
-        return createToken(claims, userDetails, accessTokenExpirationTime);
+    private TokenPair createNewTokenPair(SecuredUser user, String sessionId) {
+        long now = System.currentTimeMillis();
+        Date refreshTokenExpiration = new Date(now + refreshTokenExpirationTime);
+        JwtResponse response = new JwtResponse(generateAccessToken(user, sessionId, now),
+            generateRefreshToken(user, sessionId, now, refreshTokenExpiration), tokenType);
+        return new TokenPair(response, refreshTokenExpiration.toInstant());
     }
 
-    public String generateAccessToken(String refreshToken) {
-        return generateAccessToken(getSecuredUserForUpdateToken(refreshToken));
+    public String generateAccessToken(SecuredUser userDetails) {
+        return generateAccessToken(userDetails, newId(), System.currentTimeMillis());
     }
 
-    // todo: exception
-    private SecuredUser getSecuredUserForUpdateToken(String refreshToken) {
-        if (!extractTokenType(refreshToken).equals("refresh")) {
-            throw new IllegalArgumentException("Token type != 'refresh'");
-        } else {
-            SecuredUser user = new SecuredUser();
-            user.setEmail(extractUsername(refreshToken));
-            user.setRoles(extractRoles(refreshToken));
-            return user;
-        }
+    private String generateAccessToken(SecuredUser userDetails, String sessionId, long now) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("type", "access");
+        return createToken(claims, userDetails, sessionId, new Date(now), new Date(now + accessTokenExpirationTime));
     }
 
-    public String generateRefreshToken(String refreshToken) {
-        return generateRefreshToken(getSecuredUserForUpdateToken(refreshToken));
+    public String generateRefreshToken(SecuredUser userDetails) {
+        long now = System.currentTimeMillis();
+        return generateRefreshToken(userDetails, newId(), now, new Date(now + refreshTokenExpirationTime));
     }
 
-    public String generateRefreshToken(SecuredUser userDetails) {
+    private String generateRefreshToken(SecuredUser userDetails, String sessionId, long now, Date expiration) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "refresh");
-        return createToken(claims, userDetails, refreshTokenExpirationTime);
+        return createToken(claims, userDetails, sessionId, new Date(now), expiration);
     }
 
-    private String createToken(Map<String, Object> claims, SecuredUser userDetails, long expirationTime) {
+    private String createToken(Map<String, Object> claims, SecuredUser userDetails, String sessionId,
+        Date issuedAt, Date expiration) {
+        claims.put("jti", newId());
+        claims.put("sid", sessionId);
         claims.put("user_id", userDetails.getId());
-        claims.put("roles", userDetails.getAuthorities().stream()
-            .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.toList()));
-        return generateToken(claims, userDetails, expirationTime);
-    }
-
-    public <T> T extractClaims(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    public Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(getSignKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
-    }
-
-    private final Function<Claims, List<Role>> getRoles = claims -> {
-        List<String> roles = claims.get("roles", List.class);
-        return roles.stream()
-            .map(Role::new)
-            .collect(Collectors.toList());
-    };
-
-    private final Function<Claims, String> getTokenType = claims -> claims.get("type", String.class);
-
-    public List<Role> extractRoles(String token) {
-        return extractClaims(token, getRoles);
-    }
-
-    public String extractTokenType(String token) {
-        System.out.println("tokenType" + extractClaims(token, getTokenType));
-        return extractClaims(token, getTokenType);
-    }
-
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public String generateToken(Map<String, Object> claims, SecuredUser user, long expirationTime) {
-        return Jwts.builder()
-            .setClaims(claims)
-            .setSubject(user.getUsername())
-            .setIssuedAt(new Date(System.currentTimeMillis()))
-            .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-            .signWith(getSignKey(), SignatureAlgorithm.HS256)
-            .compact();
-    }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        if (userDetails.getId() != null) {
+            claims.put("sv", securityVersions.current(userDetails.getId()));
+        }
+        String roleBits = compactRoles ? roleRegistry.encodeRoleBits(userDetails.getAuthorities()) : null;
+        if (roleBits != null) {
+            claims.put("rb", roleBits);
+            claims.put("rv", roleRegistry.getVersion());
+        } else {
+            claims.put("roles", userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        }
+        long start = System.nanoTime();
+        try {
+            return tokenEngine.sign(claims, userDetails.getUsername(), issuedAt, expiration);
+        } finally {
+            authMetrics.recordSign(start);
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isRefreshTokenFresh(VerifiedToken token, long currentTimeMillis) {
+        return token.getExpiration().getTime() - currentTimeMillis > 2 * accessTokenExpirationTime;
     }
 
-    public boolean isRefreshTokenNotExpired(String token) {
-        Date expirationTime = extractExpiration(token);
-        Date currentTime = new Date(System.currentTimeMillis());
-        return currentTime.before(expirationTime);
+    public TokenPair refreshToken(String refreshToken) {
+        return refreshToken(verify(refreshToken));
     }
 
-    public boolean isRefreshTokenFresh(String token) {
-        return (new Date(System.currentTimeMillis() - 2 * accessTokenExpirationTime)).before(extractExpiration(token));
+    // todo: exception
+    public TokenPair refreshToken(VerifiedToken refreshToken) {
+        if (!refreshToken.isType("refresh")) {
+            throw new IllegalArgumentException("Token type != 'refresh'");
+        }
+        Long userId = refreshToken.getUserId();
+        if (userId != null && refreshToken.getSecurityVersion() < securityVersions.current(userId)) {
+            throw new IllegalArgumentException("RefreshToken revoked");
+        }
+        long now = System.currentTimeMillis();
+        SecuredUser user = toSecuredUser(refreshToken);
+        String sessionId = refreshToken.getSessionId() != null ? refreshToken.getSessionId() : newId();
+        if (isRefreshTokenFresh(refreshToken, now)) {
+            return new TokenPair(new JwtResponse(generateAccessToken(user, sessionId, now), refreshToken.value(),
+                tokenType), refreshToken.getExpiration().toInstant());
+        }
+        if (!refreshToken.isExpired(now)) {
+            return createNewTokenPair(user, sessionId);
+        } else {
+            throw new IllegalArgumentException("RefreshToken expired");
+        }
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaims(token, Claims::getExpiration);
+    private static String newId() {
+        return UUID.randomUUID().toString();
     }
 
-    public JwtResponse refreshToken(String refreshToken) {
-        if (isRefreshTokenFresh(refreshToken)) {
-            return new JwtResponse(generateAccessToken(refreshToken),
-                refreshToken, tokenType);
-        }
-        if (isRefreshTokenNotExpired(refreshToken)) {
-            return new JwtResponse(generateAccessToken(refreshToken),
-                generateRefreshToken(refreshToken), tokenType);
+    private SecuredUser toSecuredUser(VerifiedToken token) {
+        SecuredUser user = new SecuredUser();
+        user.setId(token.getUserId());
+        user.setEmail(token.getUsername());
+        String roleBits = token.getRoleBits();
+        if (roleBits != null) {
+            roleRegistry.refreshIfBehind(token.getRoleVersion());
+            user.setRoles(roleRegistry.decodeRoleBits(roleBits, token.getRoleVersion()).stream()
+                .map(RoleAuthority::toEntity)
+                .collect(Collectors.toList()));
         } else {
-            throw new IllegalArgumentException("RefreshToken expired");
+            user.setRoles(token.getRoleNames().stream()
+                .map(roleRegistry::resolve)
+                .collect(Collectors.toList()));
         }
+        return user;
     }
 }
@@ -0,0 +1,125 @@
+package edu.shtoiko.authservice.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+public final class LongIntMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    public LongIntMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int get(long key, int defaultValue) {
+        long stamp = lock.tryOptimisticRead();
+        int value = find(keys, values, key, defaultValue);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return find(keys, values, key, defaultValue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void putMax(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Unsupported key " + key);
+        }
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            int index = index(key, mask);
+            while (keys[index] != EMPTY) {
+                if (keys[index] == key) {
+                    values[index] = Math.max(values[index], value);
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int find(long[] keys, int[] values, long key, int defaultValue) {
+        if (keys.length != values.length) {
+            return defaultValue;
+        }
+        int mask = keys.length - 1;
+        int index = index(key, mask);
+        for (int probes = 0; probes < keys.length; probes++) {
+            long current = keys[index];
+            if (current == key) {
+                return values[index];
+            }
+            if (current == EMPTY) {
+                return defaultValue;
+            }
+            index = (index + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = index(oldKeys[i], mask);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        long[] newKeys = new long[capacity];
+        Arrays.fill(newKeys, EMPTY);
+        values = new int[capacity];
+        keys = newKeys;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int index(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,33 @@
+package edu.shtoiko.authservice.utils;
+
+import edu.shtoiko.authservice.exception.ResponseException;
+import edu.shtoiko.authservice.model.dto.UserSessionDto;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record SessionCursor(Instant lastActivity, long id) {
+
+    public static SessionCursor after(UserSessionDto session) {
+        return new SessionCursor(session.lastActivity(), session.id());
+    }
+
+    public static SessionCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = value.lastIndexOf('|');
+            return new SessionCursor(Instant.parse(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ResponseException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((lastActivity + "|" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+}
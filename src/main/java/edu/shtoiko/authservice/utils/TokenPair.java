@@ -0,0 +1,8 @@
+package edu.shtoiko.authservice.utils;
+
+import edu.shtoiko.authservice.model.dto.JwtResponse;
+
+import java.time.Instant;
+
+public record TokenPair(JwtResponse response, Instant refreshTokenExpiresAt) {
+}
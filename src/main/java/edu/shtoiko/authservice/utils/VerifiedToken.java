@@ -0,0 +1,75 @@
+package edu.shtoiko.authservice.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public record VerifiedToken(String value, JwsHeader<?> header, Claims claims) {
+
+    public String getUsername() {
+        return claims.getSubject();
+    }
+
+    public Long getUserId() {
+        return claims.get("user_id", Long.class);
+    }
+
+    public String getTokenId() {
+        return claims.getId();
+    }
+
+    public String getSessionId() {
+        return claims.get("sid", String.class);
+    }
+
+    public String getType() {
+        return claims.get("type", String.class);
+    }
+
+    public boolean isType(String type) {
+        return type.equals(getType());
+    }
+
+    public List<String> getRoleNames() {
+        List<?> roles = claims.get("roles", List.class);
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream()
+            .map(Object::toString)
+            .collect(Collectors.toList());
+    }
+
+    public String getRoleBits() {
+        return claims.get("rb", String.class);
+    }
+
+    public long getRoleVersion() {
+        Long roleVersion = claims.get("rv", Long.class);
+        return roleVersion != null ? roleVersion : 0L;
+    }
+
+    public int getSecurityVersion() {
+        Integer securityVersion = claims.get("sv", Integer.class);
+        return securityVersion != null ? securityVersion : 0;
+    }
+
+    public Date getIssuedAt() {
+        return claims.getIssuedAt();
+    }
+
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    public boolean isExpired(long currentTimeMillis) {
+        return getExpiration().getTime() <= currentTimeMillis;
+    }
+
+    public boolean isValidFor(String username, long currentTimeMillis) {
+        return username.equals(getUsername()) && !isExpired(currentTimeMillis);
+    }
+}
@@ -0,0 +1 @@
+CREATE INDEX idx_user_sessions_user_id_expires_at ON user_sessions (user_id, expires_at);
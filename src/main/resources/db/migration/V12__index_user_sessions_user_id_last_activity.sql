@@ -0,0 +1 @@
+CREATE INDEX idx_user_sessions_user_id_last_activity ON user_sessions (user_id, last_activity DESC, id DESC);
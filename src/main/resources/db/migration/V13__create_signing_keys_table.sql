@@ -0,0 +1,11 @@
+CREATE TABLE signing_keys (
+                              kid VARCHAR(64) PRIMARY KEY,
+                              algorithm VARCHAR(16) NOT NULL,
+                              wrapped_private_key BYTEA NOT NULL,
+                              public_key BYTEA NOT NULL,
+                              created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                              activates_at TIMESTAMP NOT NULL,
+                              expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_signing_keys_expires_at ON signing_keys (expires_at);
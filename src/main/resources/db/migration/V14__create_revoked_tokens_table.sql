@@ -0,0 +1,9 @@
+CREATE TABLE revoked_tokens (
+                                id BIGSERIAL PRIMARY KEY,
+                                session_id VARCHAR(64) NOT NULL,
+                                expires_at TIMESTAMP NOT NULL,
+                                created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_revoked_tokens_created_at ON revoked_tokens (created_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,4 @@
+ALTER TABLE users ADD COLUMN security_version INT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN security_version_updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_users_security_version_updated_at ON users (security_version_updated_at);
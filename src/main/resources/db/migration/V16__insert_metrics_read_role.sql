@@ -0,0 +1,2 @@
+INSERT INTO roles (name)
+SELECT 'METRICS_READ' WHERE NOT EXISTS (SELECT 1 FROM roles WHERE name = 'METRICS_READ');
@@ -0,0 +1,9 @@
+ALTER TABLE user_sessions ADD COLUMN refresh_token_hash BYTEA;
+
+UPDATE user_sessions SET refresh_token_hash = sha256(convert_to(refresh_token, 'UTF8'));
+
+ALTER TABLE user_sessions ALTER COLUMN refresh_token_hash SET NOT NULL;
+
+ALTER TABLE user_sessions ADD CONSTRAINT uk_user_sessions_refresh_token_hash UNIQUE (refresh_token_hash);
+
+ALTER TABLE user_sessions DROP COLUMN refresh_token;
@@ -0,0 +1 @@
+ALTER TABLE user_sessions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,41 @@
+package edu.shtoiko.authservice.config;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * PostgreSQL functions used by the Flyway migrations, registered in H2 by
+ * {@code db/h2/beforeMigrate.sql} so the tests run the production migrations
+ * instead of a copy of the schema.
+ */
+public final class H2PostgresFunctions {
+
+    private static final String SEQUENCE_SUFFIX = "_id_seq";
+
+    private H2PostgresFunctions() {
+    }
+
+    public static long setval(Connection connection, String sequence, Long value) throws SQLException {
+        long current = value == null ? 0 : value;
+        if (!sequence.endsWith(SEQUENCE_SUFFIX)) {
+            throw new SQLException("Unsupported sequence " + sequence);
+        }
+        String table = sequence.substring(0, sequence.length() - SEQUENCE_SUFFIX.length());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (current + 1));
+        }
+        return current;
+    }
+
+    public static byte[] sha256(byte[] value) throws NoSuchAlgorithmException {
+        return value == null ? null : MessageDigest.getInstance("SHA-256").digest(value);
+    }
+
+    public static byte[] convertTo(String value, String encoding) {
+        return value == null ? null : value.getBytes(Charset.forName(encoding));
+    }
+}
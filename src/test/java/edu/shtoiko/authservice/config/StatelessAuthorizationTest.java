@@ -0,0 +1,142 @@
+package edu.shtoiko.authservice.config;
+
+import edu.shtoiko.authservice.model.Role;
+import edu.shtoiko.authservice.model.SecuredUser;
+import edu.shtoiko.authservice.service.implementation.RoleRegistry;
+import edu.shtoiko.authservice.utils.JwtTokenEngine;
+import edu.shtoiko.authservice.utils.JwtTokenUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.cloud.config.enabled=false", "spring.cloud.config.discovery.enabled=false",
+    "eureka.client.enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatelessAuthorizationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenUtils tokenUtils;
+
+    @Autowired
+    private JwtTokenEngine tokenEngine;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private ConnectionCountingDataSource dataSource;
+
+    @Test
+    void authenticatedRequestAcquiresNoConnection() throws Exception {
+        String accessToken = tokenUtils.generateAccessToken(admin());
+
+        int before = dataSource.acquiredByCurrentThread();
+        mockMvc.perform(get("/role/").header("Authorization", "Bearer " + accessToken))
+            .andExpect(status().isOk());
+
+        assertThat(dataSource.acquiredByCurrentThread() - before).isZero();
+    }
+
+    @Test
+    void compactRolesAheadOfRegistryAcquireNoConnection() throws Exception {
+        roleRegistry.refresh();
+        BitSet roleBits = new BitSet();
+        roleBits.set(3);
+        long now = System.currentTimeMillis();
+        String accessToken = tokenEngine.sign(Map.of("type", "access", "sid", "compact-session", "user_id", 1L,
+            "rb", Base64.getUrlEncoder().withoutPadding().encodeToString(roleBits.toByteArray()),
+            "rv", roleRegistry.getVersion() + 100), "john.doe@example.com", new Date(now), new Date(now + 60_000));
+
+        int before = dataSource.acquiredByCurrentThread();
+        mockMvc.perform(get("/role/").header("Authorization", "Bearer " + accessToken))
+            .andExpect(status().isOk());
+
+        assertThat(dataSource.acquiredByCurrentThread() - before).isZero();
+    }
+
+    @Test
+    void requestWithoutTokenIsRejected() throws Exception {
+        mockMvc.perform(get("/role/")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void prometheusScrapeRequiresMetricsAuthority() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus")
+            .header("Authorization", "Bearer " + tokenUtils.generateAccessToken(admin())))
+            .andExpect(status().isForbidden());
+    }
+
+    private static SecuredUser admin() {
+        SecuredUser user = new SecuredUser();
+        user.setId(1L);
+        user.setEmail("john.doe@example.com");
+        user.setRoles(List.of(new Role(3L, "ADMIN")));
+        return user;
+    }
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor connectionCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof ConnectionCountingDataSource)
+                        ? new ConnectionCountingDataSource(dataSource)
+                        : bean;
+                }
+            };
+        }
+    }
+
+    static class ConnectionCountingDataSource extends DelegatingDataSource {
+
+        private final ThreadLocal<int[]> acquired = ThreadLocal.withInitial(() -> new int[1]);
+
+        ConnectionCountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        int acquiredByCurrentThread() {
+            return acquired.get()[0];
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquired.get()[0]++;
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquired.get()[0]++;
+            return super.getConnection(username, password);
+        }
+    }
+}
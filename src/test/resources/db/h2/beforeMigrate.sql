@@ -0,0 +1,3 @@
+CREATE ALIAS IF NOT EXISTS setval FOR 'edu.shtoiko.authservice.config.H2PostgresFunctions.setval';
+CREATE ALIAS IF NOT EXISTS sha256 FOR 'edu.shtoiko.authservice.config.H2PostgresFunctions.sha256';
+CREATE ALIAS IF NOT EXISTS convert_to FOR 'edu.shtoiko.authservice.config.H2PostgresFunctions.convertTo';